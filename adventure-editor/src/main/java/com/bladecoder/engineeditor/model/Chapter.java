@@ -27,6 +27,8 @@ import org.apache.commons.io.FileUtils;
 import org.xml.sax.SAXException;
 
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.AssetManifest;
+import com.bladecoder.engine.model.Scene;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engineeditor.utils.ElementUtils;
 
@@ -59,7 +61,18 @@ public class Chapter {
 	}
 	
 	public void save() throws IOException {
+		// Bake the walk graphs to avoid calculating them when loading the scenes
+		for (Scene s : World.getInstance().getScenes().values()) {
+			if (s.getPolygonalNavGraph() != null)
+				s.getPolygonalNavGraph().bakeGraph(s.getActors().values());
+		}
+
 		World.getInstance().saveModel(id);
+
+		// Bake the assets of every scene to queue them at once when loading
+		// the scenes
+		AssetManifest.create(World.getInstance().getScenes().values())
+				.save(EngineAssetManager.getInstance().getModelFile(id + EngineAssetManager.MANIFEST_EXT));
 	}
 	
 	public String[] getChapters() {
@@ -114,6 +127,9 @@ public class Chapter {
 		String i18nFilename = modelPath + id + ".properties";
 		f = new File(i18nFilename);
 		f.renameTo(new File(modelPath + newId + ".properties"));
+
+		f = new File(modelPath + id + EngineAssetManager.MANIFEST_EXT);
+		f.renameTo(new File(modelPath + newId + EngineAssetManager.MANIFEST_EXT));
 	}
 	
 	public void deleteChapter(String id) throws TransformerException, ParserConfigurationException, SAXException, IOException {		
@@ -123,5 +139,8 @@ public class Chapter {
 		String i18nFilename = modelPath + id + ".properties";
 		f = new File(i18nFilename);
 		f.delete();
+
+		f = new File(modelPath + id + EngineAssetManager.MANIFEST_EXT);
+		f.delete();
 	}
 }
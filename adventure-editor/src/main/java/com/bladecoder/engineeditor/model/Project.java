@@ -323,6 +323,9 @@ public class Project extends PropertyChange {
 
 			EngineAssetManager.createEditInstance(Ctx.project.getProjectDir().getAbsolutePath() + Project.ASSETS_PATH);
 
+			// the manifest is only updated when saving
+			World.getInstance().setAssetManifestEnabled(false);
+
 			try {
 				World.getInstance().loadWorldDesc();
 			} catch (SerializationException ex) {
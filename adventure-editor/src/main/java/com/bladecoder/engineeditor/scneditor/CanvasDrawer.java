@@ -34,6 +34,7 @@ import com.bladecoder.engine.model.ObstacleActor;
 import com.bladecoder.engine.model.Scene;
 import com.bladecoder.engine.model.SpriteActor;
 import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.polygonalpathfinder.NavMesh;
 import com.bladecoder.engine.polygonalpathfinder.NavNodePolygonal;
 import com.bladecoder.engine.util.EngineLogger;
 
@@ -112,6 +113,18 @@ public class CanvasDrawer {
 						drawer.line(n.x, n.y, n2.x, n2.y);
 					}
 				}
+
+				NavMesh navMesh = scn.getPolygonalNavGraph().getNavMesh();
+
+				if (navMesh != null) {
+					float[] verts = navMesh.getVertices();
+					int[] tris = navMesh.getTriangles();
+
+					for (int i = 0; i < tris.length; i += 3) {
+						drawer.triangle(verts[tris[i] * 2], verts[tris[i] * 2 + 1], verts[tris[i + 1] * 2],
+								verts[tris[i + 1] * 2 + 1], verts[tris[i + 2] * 2], verts[tris[i + 2] * 2 + 1]);
+					}
+				}
 			}
 			drawer.end();
 		}
@@ -30,6 +30,7 @@ public class EditLayerDialog extends EditModelDialog<Scene, SceneLayer> {
 	private InputPanel visible;
 	private InputPanel dynamic;
 	private InputPanel parallax;
+	private InputPanel prerendered;
 	
 	public EditLayerDialog(Skin skin, Scene parent, SceneLayer e) {
 		super(skin);
@@ -38,10 +39,11 @@ public class EditLayerDialog extends EditModelDialog<Scene, SceneLayer> {
 		visible = InputPanelFactory.createInputPanel(skin, "Visible", "Layer Visibility", Param.Type.BOOLEAN, true, "true");
 		dynamic = InputPanelFactory.createInputPanel(skin, "Dynamic", "True for actor reordering based in y position", Param.Type.BOOLEAN, true,"false");
 		parallax = InputPanelFactory.createInputPanel(skin, "Parallax Factor", "The multiplier factor for parallax effect", Param.Type.FLOAT, true,"1.0");
+		prerendered = InputPanelFactory.createInputPanel(skin, "Prerendered", "True to draw the layer from a texture while its actors don't change. For layers with many still actors", Param.Type.BOOLEAN, true,"false");
 
 		setInfo("Scenes can have a list of layers. Actors are added to a specific layer to control the draw order");
 
-		init(parent, e, new InputPanel[] { name, visible, dynamic, parallax });
+		init(parent, e, new InputPanel[] { name, visible, dynamic, parallax, prerendered });
 	}
 	
 	@Override
@@ -56,6 +58,7 @@ public class EditLayerDialog extends EditModelDialog<Scene, SceneLayer> {
 		e.setVisible(Boolean.parseBoolean(visible.getText()));
 		e.setDynamic(Boolean.parseBoolean(dynamic.getText()));
 		e.setParallaxMultiplier(Float.parseFloat(parallax.getText()));
+		e.setPrerendered(Boolean.parseBoolean(prerendered.getText()));
 		
 		if(create) {
 			parent.getLayers().add(e);
@@ -74,5 +77,6 @@ public class EditLayerDialog extends EditModelDialog<Scene, SceneLayer> {
 		visible.setText(Boolean.toString(e.isVisible()));
 		dynamic.setText(Boolean.toString(e.isDynamic()));
 		parallax.setText(Float.toString(e.getParallaxMultiplier()));
+		prerendered.setText(Boolean.toString(e.isPrerendered()));
 	}	
 }
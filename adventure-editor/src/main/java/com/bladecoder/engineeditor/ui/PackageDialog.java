@@ -32,8 +32,11 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogicgames.packr.Packr;
 import com.badlogicgames.packr.Packr.Platform;
 import com.bladecoder.engine.actions.Param.Type;
+import com.bladecoder.engine.assets.AssetArchive;
+import com.bladecoder.engine.assets.AssetIndex;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engineeditor.Ctx;
+import com.bladecoder.engineeditor.model.Project;
 import com.bladecoder.engineeditor.ui.components.EditDialog;
 import com.bladecoder.engineeditor.ui.components.FileInputPanel;
 import com.bladecoder.engineeditor.ui.components.InputPanel;
@@ -70,8 +73,9 @@ public class PackageDialog extends EditDialog {
 	private InputPanel androidKeyAlias;
 	private InputPanel androidKeyStorePassword;
 	private InputPanel androidKeyAliasPassword;
+	private InputPanel assetArchive;
 
-	private InputPanel[] options = new InputPanel[12];
+	private InputPanel[] options = new InputPanel[13];
 
 	@SuppressWarnings("unchecked")
 	public PackageDialog(Skin skin) {
@@ -108,6 +112,9 @@ public class PackageDialog extends EditDialog {
 				.createInputPanel(skin, "KeyStorePasswd", "Key Store Password", true);
 		androidKeyAliasPassword = InputPanelFactory
 				.createInputPanel(skin, "KeyAliasPasswd", "Key Alias Password", true);
+		assetArchive = InputPanelFactory.createInputPanel(skin, "Asset Archive",
+				"Pack all the assets in a single file next to the jar instead of inside the jar. Faster to load in desktop.",
+				Type.BOOLEAN, true, "false");
 
 		options[0] = type;
 		options[1] = os;
@@ -121,6 +128,7 @@ public class PackageDialog extends EditDialog {
 		options[9] = androidSDK;
 		options[10] = androidKeyStore;
 		options[11] = androidKeyAlias;
+		options[12] = assetArchive;
 
 		addInputPanel(arch);
 		addInputPanel(dir);
@@ -209,10 +217,19 @@ public class PackageDialog extends EditDialog {
 					return;
 				}
 
+				// the asset index is only used in the packaged game. It is
+				// deleted after packaging to not use an outdated index while
+				// developing.
+				File assetsDir = new File(Ctx.project.getProjectDir().getAbsolutePath() + Project.ASSETS_PATH);
+				File index = new File(assetsDir, AssetIndex.FILENAME);
+
 				try {
+					AssetIndex.create(assetsDir, index);
 					msg = packageAdv();
 				} catch (Exception e) {
 					msg = "Error Generating package\n\n" + e.getMessage();
+				} finally {
+					index.delete();
 				}
 
 				Ctx.project.getEditorConfig().setProperty(ARCH_PROP, arch.getText());
@@ -245,29 +262,53 @@ public class PackageDialog extends EditDialog {
 		if (arch.getText().equals("desktop")) {
 			String jarDir = Ctx.project.getProjectDir().getAbsolutePath() + "/desktop/build/libs/";
 			String jarName = projectName + "-desktop-" + version.getText() + ".jar";
+			File archive = null;
+			boolean archiveSkipped = false;
+
+			if (Boolean.parseBoolean(assetArchive.getText())) {
+				if (isAssetArchiveSupported()) {
+					// the assets are not added to the jar
+					versionParam += "-PassetArchive=true ";
+
+					archive = new File(dir.getText(), AssetArchive.FILENAME);
+					AssetArchive.create(
+							new File(Ctx.project.getProjectDir().getAbsolutePath() + Project.ASSETS_PATH), archive);
+				} else {
+					archiveSkipped = true;
+				}
+			}
 
 			msg = genDesktopJar(projectName, versionParam, jarDir, jarName);
 
+			if (archiveSkipped)
+				msg += "\n\nThe asset archive was not generated, the assets are inside the jar. The project "
+						+ "'desktop/build.gradle' is older than the asset archive and doesn't exclude the assets "
+						+ "from the jar. Copy the 'dist' task from the 'desktop/build.gradle' of a new project.";
+
 			if (type.getText().equals(TYPES[0])) { // BUNDLE JRE
 				String launcher = getDesktopMainClass();
 
 				if (os.getText().equals("linux64")) {
 					packr(Platform.linux64, linux64JRE.getText(), projectName, jarDir + jarName, launcher,
-							dir.getText());
+							dir.getText(), archive);
 				} else if (os.getText().equals("linux32")) {
 					packr(Platform.linux32, linux32JRE.getText(), projectName, jarDir + jarName, launcher,
-							dir.getText());
+							dir.getText(), archive);
 				} else if (os.getText().equals("windows")) {
-					packr(Platform.windows, winJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText());
+					packr(Platform.windows, winJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText(),
+							archive);
 				} else if (os.getText().equals("macOSX")) {
-					packr(Platform.mac, osxJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText());
+					packr(Platform.mac, osxJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText(),
+							archive);
 				} else if (os.getText().equals("all")) {
 					packr(Platform.linux64, linux64JRE.getText(), projectName, jarDir + jarName, launcher,
-							dir.getText());
+							dir.getText(), archive);
 					packr(Platform.linux32, linux32JRE.getText(), projectName, jarDir + jarName, launcher,
-							dir.getText());
-					packr(Platform.windows, winJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText());
-					packr(Platform.mac, osxJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText());
+							dir.getText(), archive);
+					packr(Platform.windows, winJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText(),
+							archive);
+					packr(Platform.mac, osxJRE.getText(), projectName, jarDir + jarName, launcher, dir.getText(),
+							archive);
 				}
 			}
 		} else if (arch.getText().equals("android")) {
@@ -326,6 +367,7 @@ public class PackageDialog extends EditDialog {
 		String a = arch.getText();
 		if (a.equals("desktop")) {
 			setVisible(type, true);
+			setVisible(assetArchive, true);
 			typeChanged();
 		} else if (a.equals("android")) {
 			setVisible(androidVersionCode, true);
@@ -428,6 +470,17 @@ public class PackageDialog extends EditDialog {
 		return ok;
 	}
 
+	/**
+	 * Projects created before the asset archive ignore the 'assetArchive'
+	 * property and would package the assets twice, in the jar and in the
+	 * archive.
+	 */
+	private boolean isAssetArchiveSupported() throws IOException {
+		File gradle = new File(Ctx.project.getProjectDir().getAbsolutePath(), "desktop/build.gradle");
+
+		return gradle.exists() && FileUtils.readFileToString(gradle).contains("assetArchive");
+	}
+
 	private String genDesktopJar(String projectName, String versionParam, String jarDir, String jarName)
 			throws IOException {
 		String msg = null;
@@ -445,8 +498,12 @@ public class PackageDialog extends EditDialog {
 		return msg;
 	}
 
-	private void packr(Platform platform, String jdk, String exe, String jar, String mainClass, String outDir)
-			throws IOException {
+	/**
+	 * @param archive
+	 *            The asset archive to copy next to the jar. Can be null.
+	 */
+	private void packr(Platform platform, String jdk, String exe, String jar, String mainClass, String outDir,
+			File archive) throws IOException {
 		String suffix = null;
 		;
 
@@ -491,6 +548,16 @@ public class PackageDialog extends EditDialog {
 		config.outDir = outDir + "/" + exe + "-" + suffix;
 
 		new Packr().pack(config);
+
+		if (archive != null) {
+			// the engine searches the archive next to the jar
+			String jarName = new File(jar).getName();
+
+			for (File f : FileUtils.listFiles(new File(config.outDir), null, true)) {
+				if (f.getName().equals(jarName))
+					FileUtils.copyFileToDirectory(archive, f.getParentFile());
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.SayAction;
+import com.bladecoder.engine.util.ActionUtils;
+
+/**
+ * Reflection based action serialization used for every action in the chapter
+ * files and the saved games.
+ * 
+ * ActionUtils.readJson() modifies the json value, so 'readJson' parses the
+ * action again in every call. Subtract 'parse' to get the readJson() time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionJsonBenchmark {
+	private final Json json = new Json();
+	private final JsonReader reader = new JsonReader();
+
+	private Action action;
+	private String actionJson;
+
+	@Setup
+	public void setup() {
+		HeadlessEngine.start();
+
+		action = SyntheticData.createAction(SayAction.class, "actor", "player", "text", "scene.actor.lookat", "type",
+				"TALK", "queue", "true");
+
+		actionJson = writeJson();
+	}
+
+	@Benchmark
+	public String writeJson() {
+		StringWriter w = new StringWriter();
+		json.setWriter(w);
+
+		ActionUtils.writeJson(action, json);
+
+		return w.toString();
+	}
+
+	@Benchmark
+	public JsonValue parse() {
+		return reader.parse(actionJson);
+	}
+
+	@Benchmark
+	public Action readJson() {
+		return ActionUtils.readJson(json, reader.parse(actionJson));
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * Starts the libgdx headless backend for the benchmarks.
+ * 
+ * The headless backend doesn't create a GL context, so a GL20 that does
+ * nothing is installed. It reports shaders as compiled and linked, so the
+ * World SpriteBatch can be created.
+ */
+public class HeadlessEngine {
+	private static boolean started = false;
+
+	public static synchronized void start() {
+		if (started)
+			return;
+
+		HeadlessApplicationConfiguration cfg = new HeadlessApplicationConfiguration();
+
+		// no render loop, the benchmarks call the engine directly
+		cfg.renderInterval = -1;
+
+		new HeadlessApplication(new ApplicationAdapter() {
+		}, cfg);
+
+		Gdx.gl = Gdx.gl20 = createNullGL();
+
+		started = true;
+	}
+
+	private static GL20 createNullGL() {
+		return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+				new InvocationHandler() {
+					private int lastHandle = 0;
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						String name = method.getName();
+
+						if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+							int pname = (Integer) args[1];
+							IntBuffer params = (IntBuffer) args[2];
+
+							boolean ok = pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS;
+							params.put(params.position(), ok ? 1 : 0);
+
+							return null;
+						}
+
+						if (name.equals("glCreateShader") || name.equals("glCreateProgram") || name.startsWith("glGen"))
+							return ++lastHandle;
+
+						if (name.startsWith("glGet") && method.getReturnType() == String.class)
+							return "";
+
+						Class<?> type = method.getReturnType();
+
+						if (type == boolean.class)
+							return false;
+						else if (type == int.class)
+							return 0;
+						else if (type == float.class)
+							return 0f;
+
+						return null;
+					}
+				});
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import com.badlogic.gdx.math.Polygon;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.polygonalpathfinder.NavNodePolygonal;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+
+/**
+ * Checks that the visibility graph is the same after adding and removing two
+ * overlapping dynamic obstacles, removed in both orders.
+ *
+ * Run it with:
+ *   ./gradlew :blade-engine-benchmarks:navGraphCheck
+ */
+public class NavGraphCheck {
+	private static final int WALKZONE_VERTICES = 64;
+	private static final int NUM_OBSTACLES = 10;
+
+	public static void main(String[] args) {
+		HeadlessEngine.start();
+
+		boolean ok = check(false) & check(true);
+
+		if (!ok)
+			System.exit(1);
+
+		System.out.println("NavGraphCheck: OK");
+	}
+
+	private static boolean check(boolean reverse) {
+		Random rnd = new Random(SyntheticData.SEED);
+
+		Polygon walkZone = SyntheticData.createWalkZone(WALKZONE_VERTICES, rnd);
+		ArrayList<BaseActor> obstacles = SyntheticData.createObstacles(walkZone, NUM_OBSTACLES, rnd);
+
+		PolygonalNavGraph graph = SyntheticData.createNavGraph(walkZone, PolygonalNavGraph.Type.VISIBILITY_GRAPH);
+		graph.createInitialGraph(obstacles);
+
+		TreeSet<String> initial = getEdges(graph);
+
+		float size = Math.min(SyntheticData.WORLD_WIDTH, SyntheticData.WORLD_HEIGHT) / 10;
+		Polygon o1 = createSquare(SyntheticData.WORLD_WIDTH / 2 - size, SyntheticData.WORLD_HEIGHT / 2, size);
+		Polygon o2 = createSquare(SyntheticData.WORLD_WIDTH / 2 - size / 2, SyntheticData.WORLD_HEIGHT / 2 + size / 2,
+				size);
+
+		graph.addDinamicObstacle(o1);
+		graph.addDinamicObstacle(o2);
+
+		if (reverse) {
+			graph.removeDinamicObstacle(o2);
+			graph.removeDinamicObstacle(o1);
+		} else {
+			graph.removeDinamicObstacle(o1);
+			graph.removeDinamicObstacle(o2);
+		}
+
+		TreeSet<String> result = getEdges(graph);
+
+		String order = reverse ? "second obstacle removed first" : "first obstacle removed first";
+
+		if (!result.equals(initial)) {
+			TreeSet<String> missing = new TreeSet<String>(initial);
+			missing.removeAll(result);
+
+			TreeSet<String> extra = new TreeSet<String>(result);
+			extra.removeAll(initial);
+
+			System.err.println("NavGraphCheck: FAILED (" + order + "). Missing edges: " + missing + " Extra edges: "
+					+ extra);
+
+			return false;
+		}
+
+		System.out.println("NavGraphCheck: " + initial.size() + " edges restored (" + order + ")");
+
+		return true;
+	}
+
+	private static Polygon createSquare(float x, float y, float size) {
+		Polygon p = new Polygon(new float[] { 0, 0, size, 0, size, size, 0, size });
+		p.setPosition(x, y);
+
+		return p;
+	}
+
+	/**
+	 * Returns the graph edges as sorted 'x1,y1-x2,y2' strings, so graphs with
+	 * different node instances can be compared.
+	 */
+	private static TreeSet<String> getEdges(PolygonalNavGraph graph) {
+		TreeSet<String> edges = new TreeSet<String>();
+
+		for (NavNodePolygonal n1 : graph.getGraphNodes()) {
+			for (NavNodePolygonal n2 : n1.neighbors) {
+				String s1 = n1.x + "," + n1.y;
+				String s2 = n2.x + "," + n2.y;
+
+				edges.add(s1.compareTo(s2) < 0 ? s1 + "-" + s2 : s2 + "-" + s1);
+			}
+		}
+
+		return edges;
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Polygon;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.polygonalpathfinder.PathQuery;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+
+/**
+ * Walk graph creation, path searches and dynamic obstacle updates for
+ * walkzones and obstacle counts from small scenes to big ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfinderBenchmark {
+	private static final int NUM_POINTS = 128;
+
+	@Param({ "64", "256", "512" })
+	public int walkZoneVertices;
+
+	@Param({ "0", "10", "30" })
+	public int numObstacles;
+
+	@Param({ "VISIBILITY_GRAPH", "NAVMESH" })
+	public PolygonalNavGraph.Type type;
+
+	private ArrayList<BaseActor> obstacles;
+	private PolygonalNavGraph graph;
+	private final PathQuery query = new PathQuery();
+
+	/** Source and target points of the searches */
+	private float[] points;
+	private int next;
+
+	@Setup
+	public void setup() {
+		HeadlessEngine.start();
+
+		Random rnd = new Random(SyntheticData.SEED);
+
+		Polygon walkZone = SyntheticData.createWalkZone(walkZoneVertices, rnd);
+		obstacles = SyntheticData.createObstacles(walkZone, numObstacles, rnd);
+		points = SyntheticData.createWalkablePoints(walkZone, obstacles, NUM_POINTS, rnd);
+
+		graph = SyntheticData.createNavGraph(walkZone, type);
+		graph.createInitialGraph(obstacles);
+	}
+
+	@Benchmark
+	public PolygonalNavGraph createInitialGraph() {
+		graph.createInitialGraph(obstacles);
+
+		return graph;
+	}
+
+	@Benchmark
+	public int findPath() {
+		int s = next;
+		int t = (next + 1) % NUM_POINTS;
+
+		next = t;
+
+		return graph.findPath(points[s * 2], points[s * 2 + 1], points[t * 2], points[t * 2 + 1], query).size();
+	}
+
+	/**
+	 * Hides and shows an obstacle, like an ObstacleActor.setVisible() does.
+	 */
+	@Benchmark
+	public PolygonalNavGraph toggleObstacle() {
+		if (obstacles.isEmpty())
+			return graph;
+
+		Polygon o = obstacles.get(next++ % obstacles.size()).getBBox();
+
+		graph.removeDinamicObstacle(o);
+		graph.addDinamicObstacle(o);
+
+		return graph;
+	}
+}
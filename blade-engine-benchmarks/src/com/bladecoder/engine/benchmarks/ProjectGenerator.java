@@ -0,0 +1,565 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeSet;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.GotoAction;
+import com.bladecoder.engine.actions.LeaveAction;
+import com.bladecoder.engine.actions.Param;
+import com.bladecoder.engine.actions.SayAction;
+import com.bladecoder.engine.actions.SetStateAction;
+import com.bladecoder.engine.actions.TalktoAction;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.i18n.I18N;
+import com.bladecoder.engine.model.CharacterActor;
+import com.bladecoder.engine.model.Dialog;
+import com.bladecoder.engine.model.DialogOption;
+import com.bladecoder.engine.model.ImageRenderer;
+import com.bladecoder.engine.model.InteractiveActor;
+import com.bladecoder.engine.model.ObstacleActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.SceneLayer;
+import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.VerbManager;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+import com.bladecoder.engine.util.ActionUtils;
+import com.bladecoder.engine.util.SerializationHelper;
+import com.bladecoder.engine.util.SerializationHelper.Mode;
+
+/**
+ * Generates synthetic projects to measure how the engine scales with the size
+ * of the game: 'world.json', the '.chapter.json' files and their i18n
+ * '.properties' files.
+ *
+ * The content is generated from a seed, so the same parameters always generate
+ * the same files. Actors don't have images, the engine draws their bbox.
+ *
+ * Can be used from the command line, see main().
+ */
+public class ProjectGenerator {
+	/** The model folder in the project, as created by the editor */
+	private static final String MODEL_PATH = "/android/assets/model";
+
+	private static final String PLAYER_ID = "player";
+
+	private static final String[] VERBS = { Verb.LOOKAT_VERB, Verb.ACTION_VERB, Verb.USE_VERB, Verb.TALKTO_VERB };
+
+	private int worldWidth = 1920;
+	private int worldHeight = 1080;
+
+	private int numChapters = 1;
+	private int scenesPerChapter = 10;
+	private int actorsPerScene = 20;
+	private int charactersPerScene = 2;
+	private int verbsPerActor = 3;
+	private int actionsPerVerb = 3;
+	private int dialogsPerCharacter = 1;
+	private int optionsPerDialog = 4;
+	private int walkZoneVertices = 32;
+	private int obstaclesPerScene = 4;
+	private long seed = 1234;
+
+	private Random rnd;
+
+	/** i18n texts of the chapter being generated */
+	private Properties i18nChapter;
+
+	/**
+	 * Writes the project files in the model folder.
+	 *
+	 * @param modelDir
+	 *            The 'assets/model' folder of the project.
+	 */
+	public void generate(File modelDir) throws IOException {
+		rnd = new Random(seed);
+
+		modelDir.mkdirs();
+
+		SerializationHelper.getInstance().setMode(Mode.MODEL);
+
+		writeWorld(modelDir);
+
+		for (int c = 0; c < numChapters; c++) {
+			String chapterId = "chapter" + c;
+
+			i18nChapter = createProperties();
+
+			HashMap<String, Scene> scenes = new HashMap<String, Scene>();
+
+			for (int i = 0; i < scenesPerChapter; i++) {
+				Scene s = createScene(sceneId(i), sceneId((i + 1) % scenesPerChapter));
+				scenes.put(s.getId(), s);
+			}
+
+			Json json = createJson();
+			json.writeObjectStart();
+			json.writeValue("scenes", scenes, scenes.getClass(), Scene.class);
+			json.writeValue("initScene", sceneId(0));
+			json.writeObjectEnd();
+
+			write(new File(modelDir, chapterId + EngineAssetManager.CHAPTER_EXT), json);
+			writeProperties(new File(modelDir, chapterId + ".properties"), i18nChapter);
+		}
+	}
+
+	private void writeWorld(File modelDir) throws IOException {
+		Properties i18nWorld = createProperties();
+		VerbManager verbs = new VerbManager();
+
+		// default verbs for actors without the verb
+		for (String id : VERBS) {
+			Verb v = new Verb(id);
+			String key = "default." + id + ".0.text";
+
+			v.add(createAction(SayAction.class, "actor", PLAYER_ID, "text", I18N.PREFIX + key));
+			i18nWorld.setProperty(key, "I can't " + id + " that.");
+
+			verbs.addVerb(v);
+		}
+
+		Json json = createJson();
+		json.writeObjectStart();
+		json.writeValue("width", worldWidth);
+		json.writeValue("height", worldHeight);
+		json.writeValue("initChapter", "chapter0");
+		verbs.write(json);
+		json.writeObjectEnd();
+
+		write(new File(modelDir, EngineAssetManager.WORLD_FILENAME_JSON), json);
+		writeProperties(new File(modelDir, "world.properties"), i18nWorld);
+	}
+
+	/**
+	 * Creates a scene. The last actor of the scene is a door to 'nextScene'.
+	 */
+	private Scene createScene(String id, String nextScene) {
+		Scene scn = new Scene();
+		scn.setId(id);
+
+		String[] layers = { "background", "dynamic", "foreground" };
+
+		for (String name : layers) {
+			SceneLayer layer = new SceneLayer();
+			layer.setName(name);
+			layer.setVisible(true);
+			layer.setDynamic(name.equals("dynamic"));
+			scn.addLayer(layer);
+		}
+
+		Polygon walkZone = createWalkZone();
+		PolygonalNavGraph graph = new PolygonalNavGraph();
+		graph.setWalkZone(walkZone);
+		scn.setPolygonalNavGraph(graph);
+
+		createObstacles(scn);
+
+		CharacterActor player = createCharacter(scn, PLAYER_ID);
+		scn.setPlayer(player);
+
+		for (int i = 0; i < charactersPerScene; i++)
+			createCharacter(scn, "character" + i);
+
+		for (int i = 0; i < actorsPerScene; i++) {
+			InteractiveActor a = new InteractiveActor();
+			a.setId("actor" + i);
+			a.setLayer(layers[i % layers.length]);
+			a.setInteraction(true);
+
+			float w = 40 + rnd.nextFloat() * 200;
+			float h = 40 + rnd.nextFloat() * 300;
+			a.getBBox().setVertices(new float[] { 0, 0, w, 0, w, h, 0, h });
+			a.getBBox().setPosition(rnd.nextFloat() * (worldWidth - w), rnd.nextFloat() * (worldHeight - h));
+
+			setDesc(scn, a);
+			createVerbs(scn, a);
+
+			scn.addActor(a);
+		}
+
+		// DOOR TO THE NEXT SCENE
+		if (actorsPerScene > 0) {
+			InteractiveActor door = (InteractiveActor) scn.getActor("actor" + (actorsPerScene - 1), false);
+			Verb leave = new Verb(Verb.LEAVE_VERB);
+			leave.add(createAction(GotoAction.class, "actor", PLAYER_ID, "target", door.getId()));
+			leave.add(createAction(LeaveAction.class, "scene", nextScene));
+			door.getVerbManager().addVerb(leave);
+		}
+
+		Verb init = new Verb(Verb.INIT_VERB);
+		init.add(createAction(SetStateAction.class, "actor", id, "state", "visited"));
+		scn.getVerbManager().addVerb(init);
+
+		return scn;
+	}
+
+	private CharacterActor createCharacter(Scene scn, String id) {
+		CharacterActor a = new CharacterActor();
+		a.setId(id);
+		a.setLayer("dynamic");
+		a.setInteraction(true);
+		a.setRenderer(new ImageRenderer());
+		a.getBBox().setVertices(new float[] { -50, 0, 50, 0, 50, 300, -50, 300 });
+
+		Vector2 pos = getWalkablePos(scn);
+		a.getBBox().setPosition(pos.x, pos.y);
+
+		setDesc(scn, a);
+		createVerbs(scn, a);
+
+		if (!id.equals(PLAYER_ID)) {
+			for (int d = 0; d < dialogsPerCharacter; d++)
+				a.addDialog(createDialog(scn, id, "dialog" + d));
+
+			if (dialogsPerCharacter > 0) {
+				Verb talkto = new Verb(Verb.TALKTO_VERB);
+				talkto.add(createAction(TalktoAction.class, "actor", id, "dialog", "dialog0"));
+				a.getVerbManager().addVerb(talkto);
+
+				Verb response = new Verb(Dialog.DEFAULT_DIALOG_VERB);
+				response.add(createAction(SayAction.class, "actor", id, "text",
+						translate(scn.getId(), id, Dialog.DEFAULT_DIALOG_VERB, 0, "text")));
+				a.getVerbManager().addVerb(response);
+			}
+		}
+
+		scn.addActor(a);
+
+		return a;
+	}
+
+	private Dialog createDialog(Scene scn, String actorId, String dialogId) {
+		Dialog d = new Dialog();
+		d.setId(dialogId);
+		d.setActor(actorId);
+
+		for (int i = 0; i < optionsPerDialog; i++) {
+			DialogOption o = new DialogOption();
+			o.setText(translate(scn.getId(), actorId, dialogId, i, "text"));
+			o.setResponseText(translate(scn.getId(), actorId, dialogId, i, "responseText"));
+
+			// the last option ends the dialog
+			if (i < optionsPerDialog - 1)
+				o.setNext("this");
+
+			d.addOption(o);
+		}
+
+		return d;
+	}
+
+	private void createVerbs(Scene scn, InteractiveActor a) {
+		for (int i = 0; i < verbsPerActor; i++) {
+			Verb v = new Verb(i < VERBS.length ? VERBS[i] : "verb" + i);
+
+			for (int j = 0; j < actionsPerVerb; j++) {
+				Action action;
+
+				switch (j % 3) {
+				case 0:
+					action = createAction(SayAction.class, "actor", PLAYER_ID, "text",
+							translate(scn.getId(), a.getId(), v.getHashKey(), j, "text"));
+					break;
+				case 1:
+					action = createAction(SetStateAction.class, "actor", a.getId(), "state", "state" + j);
+					break;
+				default:
+					Vector2 pos = getWalkablePos(scn);
+					action = createAction(GotoAction.class, "actor", PLAYER_ID, "pos", Param.toStringParam(pos));
+				}
+
+				v.add(action);
+			}
+
+			a.getVerbManager().addVerb(v);
+		}
+	}
+
+	private void setDesc(Scene scn, InteractiveActor a) {
+		String key = scn.getId() + "." + a.getId() + ".desc";
+
+		a.setDesc(I18N.PREFIX + key);
+		i18nChapter.setProperty(key, "A " + a.getId());
+	}
+
+	/**
+	 * Adds a text with the editor key format to the chapter i18n and returns
+	 * the key.
+	 */
+	private String translate(String sceneId, String actorId, String parent, int pos, String property) {
+		String key = sceneId + "." + actorId + "." + parent + "." + pos + "." + property;
+
+		i18nChapter.setProperty(key, "Text for " + key + ". " + LOREM.substring(0, rnd.nextInt(LOREM.length())));
+
+		return I18N.PREFIX + key;
+	}
+
+	/**
+	 * Walkzone around the scene center with 'walkZoneVertices' vertices. The
+	 * radius changes in every vertex to have concave corners.
+	 */
+	private Polygon createWalkZone() {
+		int n = Math.max(3, walkZoneVertices);
+		float verts[] = new float[n * 2];
+
+		for (int i = 0; i < n; i++) {
+			float angle = MathUtils.PI2 * i / n;
+			float r = 0.85f + rnd.nextFloat() * 0.15f;
+
+			verts[i * 2] = worldWidth / 2 + MathUtils.cos(angle) * r * worldWidth / 2;
+			verts[i * 2 + 1] = worldHeight / 2 + MathUtils.sin(angle) * r * worldHeight / 2;
+		}
+
+		return new Polygon(verts);
+	}
+
+	/**
+	 * Square obstacles in a ring at half the walkzone radius, so they are
+	 * inside the walkzone and don't overlap.
+	 */
+	private void createObstacles(Scene scn) {
+		if (obstaclesPerScene <= 0)
+			return;
+
+		float size = Math.min(worldWidth, worldHeight) * 0.5f * MathUtils.PI / obstaclesPerScene * 0.5f;
+		size = Math.min(size, Math.min(worldWidth, worldHeight) * 0.1f);
+
+		for (int i = 0; i < obstaclesPerScene; i++) {
+			float angle = MathUtils.PI2 * i / obstaclesPerScene;
+
+			ObstacleActor o = new ObstacleActor();
+			o.setId("obstacle" + i);
+			o.getBBox().setVertices(new float[] { 0, 0, size, 0, size, size, 0, size });
+			o.getBBox().setPosition(worldWidth / 2 + MathUtils.cos(angle) * worldWidth / 4 - size / 2,
+					worldHeight / 2 + MathUtils.sin(angle) * worldHeight / 4 - size / 2);
+
+			scn.addActor(o);
+		}
+	}
+
+	/**
+	 * A position near the walkzone center, inside the obstacles ring.
+	 */
+	private Vector2 getWalkablePos(Scene scn) {
+		float angle = rnd.nextFloat() * MathUtils.PI2;
+		float r = rnd.nextFloat() * 0.15f;
+
+		return new Vector2(worldWidth / 2 + MathUtils.cos(angle) * r * worldWidth / 2,
+				worldHeight / 2 + MathUtils.sin(angle) * r * worldHeight / 2);
+	}
+
+	private static String sceneId(int i) {
+		return "scene" + i;
+	}
+
+	private static Action createAction(Class<? extends Action> clazz, String... params) {
+		try {
+			Action a = clazz.newInstance();
+
+			for (int i = 0; i < params.length; i += 2)
+				ActionUtils.setParam(a, params[i], params[i + 1]);
+
+			return a;
+		} catch (Exception e) {
+			throw new RuntimeException("Error creating action " + clazz.getName(), e);
+		}
+	}
+
+	private static Json createJson() {
+		Json json = new Json();
+		json.setOutputType(OutputType.javascript);
+		json.setWriter(new StringWriter());
+
+		return json;
+	}
+
+	private static void write(File file, Json json) throws IOException {
+		Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+
+		try {
+			w.write(json.getWriter().getWriter().toString());
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Properties saved in alphabetical order, like the editor does.
+	 */
+	@SuppressWarnings("serial")
+	private static Properties createProperties() {
+		return new Properties() {
+			@Override
+			public synchronized Enumeration<Object> keys() {
+				return Collections.enumeration(new TreeSet<Object>(keySet()));
+			}
+		};
+	}
+
+	private static void writeProperties(File file, Properties props) throws IOException {
+		Writer w = new OutputStreamWriter(new FileOutputStream(file), I18N.ENCODING);
+
+		try {
+			props.store(w, null);
+		} finally {
+			w.close();
+		}
+	}
+
+	private static final String LOREM = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+
+	public void setWorldSize(int width, int height) {
+		this.worldWidth = width;
+		this.worldHeight = height;
+	}
+
+	public void setNumChapters(int numChapters) {
+		this.numChapters = numChapters;
+	}
+
+	public void setScenesPerChapter(int scenesPerChapter) {
+		this.scenesPerChapter = scenesPerChapter;
+	}
+
+	public void setActorsPerScene(int actorsPerScene) {
+		this.actorsPerScene = actorsPerScene;
+	}
+
+	public void setCharactersPerScene(int charactersPerScene) {
+		this.charactersPerScene = charactersPerScene;
+	}
+
+	public void setVerbsPerActor(int verbsPerActor) {
+		this.verbsPerActor = verbsPerActor;
+	}
+
+	public void setActionsPerVerb(int actionsPerVerb) {
+		this.actionsPerVerb = actionsPerVerb;
+	}
+
+	public void setDialogsPerCharacter(int dialogsPerCharacter) {
+		this.dialogsPerCharacter = dialogsPerCharacter;
+	}
+
+	public void setOptionsPerDialog(int optionsPerDialog) {
+		this.optionsPerDialog = optionsPerDialog;
+	}
+
+	public void setWalkZoneVertices(int walkZoneVertices) {
+		this.walkZoneVertices = walkZoneVertices;
+	}
+
+	public void setObstaclesPerScene(int obstaclesPerScene) {
+		this.obstaclesPerScene = obstaclesPerScene;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	private static void usage() {
+		System.out.println("Usage: ProjectGenerator -o <project dir> [options]\n" //
+				+ "  -chapters <n>     Number of chapters (1)\n" //
+				+ "  -scenes <n>       Scenes per chapter (10)\n" //
+				+ "  -actors <n>       Actors per scene (20)\n" //
+				+ "  -characters <n>   Characters per scene, without the player (2)\n" //
+				+ "  -verbs <n>        Verbs per actor (3)\n" //
+				+ "  -actions <n>      Actions per verb (3)\n" //
+				+ "  -dialogs <n>      Dialogs per character (1)\n" //
+				+ "  -options <n>      Options per dialog (4)\n" //
+				+ "  -walkzone <n>     Walkzone vertices (32)\n" //
+				+ "  -obstacles <n>    Obstacles per scene (4)\n" //
+				+ "  -seed <n>         Random seed (1234)\n\n" //
+				+ "The files are written in '<project dir>" + MODEL_PATH + "'.");
+	}
+
+	public static void main(String[] args) {
+		ProjectGenerator g = new ProjectGenerator();
+		String projectDir = null;
+
+		try {
+			for (int i = 0; i < args.length - 1; i += 2) {
+				String arg = args[i];
+				String value = args[i + 1];
+
+				if (arg.equals("-o"))
+					projectDir = value;
+				else if (arg.equals("-chapters"))
+					g.setNumChapters(Integer.parseInt(value));
+				else if (arg.equals("-scenes"))
+					g.setScenesPerChapter(Integer.parseInt(value));
+				else if (arg.equals("-actors"))
+					g.setActorsPerScene(Integer.parseInt(value));
+				else if (arg.equals("-characters"))
+					g.setCharactersPerScene(Integer.parseInt(value));
+				else if (arg.equals("-verbs"))
+					g.setVerbsPerActor(Integer.parseInt(value));
+				else if (arg.equals("-actions"))
+					g.setActionsPerVerb(Integer.parseInt(value));
+				else if (arg.equals("-dialogs"))
+					g.setDialogsPerCharacter(Integer.parseInt(value));
+				else if (arg.equals("-options"))
+					g.setOptionsPerDialog(Integer.parseInt(value));
+				else if (arg.equals("-walkzone"))
+					g.setWalkZoneVertices(Integer.parseInt(value));
+				else if (arg.equals("-obstacles"))
+					g.setObstaclesPerScene(Integer.parseInt(value));
+				else if (arg.equals("-seed"))
+					g.setSeed(Long.parseLong(value));
+				else {
+					usage();
+					return;
+				}
+			}
+		} catch (NumberFormatException e) {
+			usage();
+			return;
+		}
+
+		if (projectDir == null) {
+			usage();
+			return;
+		}
+
+		File modelDir = new File(projectDir + MODEL_PATH);
+
+		try {
+			long t0 = System.currentTimeMillis();
+			g.generate(modelDir);
+			System.out.println("Project generated in " + modelDir.getAbsolutePath() + " ("
+					+ (System.currentTimeMillis() - t0) + " ms)");
+		} catch (IOException e) {
+			System.err.println("Error generating project: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bladecoder.engine.model.InteractiveActor;
+import com.bladecoder.engine.model.Scene;
+
+/**
+ * Actor picking under the pointer, as done every frame by the scene screen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneBenchmark {
+	private static final int NUM_POINTS = 1024;
+
+	@Param({ "10", "100", "1000" })
+	public int numActors;
+
+	private Scene scene;
+
+	private float[] points;
+	private int next;
+
+	@Setup
+	public void setup() {
+		HeadlessEngine.start();
+
+		Random rnd = new Random(SyntheticData.SEED);
+
+		scene = SyntheticData.createScene("scene", numActors, 0, rnd);
+
+		points = new float[NUM_POINTS * 2];
+
+		for (int i = 0; i < NUM_POINTS; i++) {
+			points[i * 2] = rnd.nextFloat() * SyntheticData.WORLD_WIDTH;
+			points[i * 2 + 1] = rnd.nextFloat() * SyntheticData.WORLD_HEIGHT;
+		}
+	}
+
+	@Benchmark
+	public InteractiveActor getInteractiveActorAt() {
+		int i = next;
+		next = (next + 1) % NUM_POINTS;
+
+		return scene.getInteractiveActorAt(points[i * 2], points[i * 2 + 1]);
+	}
+
+	@Benchmark
+	public InteractiveActor getInteractiveActorAtWithTolerance() {
+		int i = next;
+		next = (next + 1) % NUM_POINTS;
+
+		return scene.getInteractiveActorAt(points[i * 2], points[i * 2 + 1], 40);
+	}
+}
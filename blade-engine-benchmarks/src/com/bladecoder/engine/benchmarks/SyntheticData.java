@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Polygon;
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.SayAction;
+import com.bladecoder.engine.actions.SetStateAction;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.InteractiveActor;
+import com.bladecoder.engine.model.ObstacleActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.SceneLayer;
+import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+import com.bladecoder.engine.util.ActionUtils;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * Builds in memory the synthetic walkzones and scenes used by the benchmarks.
+ * Everything is generated from a fixed seed so the runs are comparable. The
+ * chapter files are written by the ProjectGenerator.
+ */
+public class SyntheticData {
+	public static final int SEED = 1234;
+
+	public static final float WORLD_WIDTH = 1920;
+	public static final float WORLD_HEIGHT = 1080;
+
+	private static final String[] VERBS = { Verb.LOOKAT_VERB, Verb.ACTION_VERB, Verb.TALKTO_VERB, Verb.USE_VERB,
+			Verb.LEAVE_VERB };
+
+	/**
+	 * Creates a walkzone with 'numVertices' vertices around the world center.
+	 * The radius changes in every vertex so the walkzone has many concave
+	 * corners, like the walkzones drawn in the editor.
+	 */
+	public static Polygon createWalkZone(int numVertices, Random rnd) {
+		float verts[] = new float[numVertices * 2];
+		float cx = WORLD_WIDTH / 2;
+		float cy = WORLD_HEIGHT / 2;
+
+		for (int i = 0; i < numVertices; i++) {
+			float angle = MathUtils.PI2 * i / numVertices;
+			float r = 0.85f + rnd.nextFloat() * 0.15f;
+
+			verts[i * 2] = cx + MathUtils.cos(angle) * r * WORLD_WIDTH / 2;
+			verts[i * 2 + 1] = cy + MathUtils.sin(angle) * r * WORLD_HEIGHT / 2;
+		}
+
+		return new Polygon(verts);
+	}
+
+	/**
+	 * Creates obstacle actors inside the walkzone that don't overlap between
+	 * them.
+	 */
+	public static ArrayList<BaseActor> createObstacles(Polygon walkZone, int numObstacles, Random rnd) {
+		ArrayList<BaseActor> obstacles = new ArrayList<BaseActor>();
+		ArrayList<Polygon> placed = new ArrayList<Polygon>();
+
+		float size = Math.min(WORLD_WIDTH, WORLD_HEIGHT) / 20;
+		int tries = 0;
+
+		while (obstacles.size() < numObstacles && tries < numObstacles * 100) {
+			tries++;
+
+			float x = WORLD_WIDTH * 0.15f + rnd.nextFloat() * WORLD_WIDTH * 0.7f;
+			float y = WORLD_HEIGHT * 0.15f + rnd.nextFloat() * WORLD_HEIGHT * 0.7f;
+
+			Polygon p = new Polygon(new float[] { 0, 0, size, 0, size, size, 0, size });
+			p.setPosition(x, y);
+
+			if (!insideAndFree(p, walkZone, placed))
+				continue;
+
+			placed.add(p);
+
+			ObstacleActor a = new ObstacleActor();
+			a.setId("obstacle" + obstacles.size());
+			a.getBBox().setVertices(p.getVertices());
+			a.getBBox().setPosition(x, y);
+			obstacles.add(a);
+		}
+
+		return obstacles;
+	}
+
+	private static boolean insideAndFree(Polygon p, Polygon walkZone, ArrayList<Polygon> placed) {
+		float verts[] = p.getTransformedVertices();
+
+		for (int i = 0; i < verts.length; i += 2) {
+			if (!PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false))
+				return false;
+		}
+
+		for (Polygon o : placed) {
+			if (o.getBoundingRectangle().overlaps(p.getBoundingRectangle()))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns 'num' points inside the walkzone and outside the obstacles as
+	 * [x0, y0, x1, y1...].
+	 */
+	public static float[] createWalkablePoints(Polygon walkZone, ArrayList<BaseActor> obstacles, int num, Random rnd) {
+		float points[] = new float[num * 2];
+		int n = 0;
+
+		while (n < num) {
+			float x = rnd.nextFloat() * WORLD_WIDTH;
+			float y = rnd.nextFloat() * WORLD_HEIGHT;
+
+			if (!PolygonUtils.isPointInside(walkZone, x, y, false))
+				continue;
+
+			boolean free = true;
+
+			for (BaseActor o : obstacles) {
+				if (o.getBBox().contains(x, y)) {
+					free = false;
+					break;
+				}
+			}
+
+			if (free) {
+				points[n * 2] = x;
+				points[n * 2 + 1] = y;
+				n++;
+			}
+		}
+
+		return points;
+	}
+
+	public static PolygonalNavGraph createNavGraph(Polygon walkZone, PolygonalNavGraph.Type type) {
+		PolygonalNavGraph graph = new PolygonalNavGraph();
+		graph.setWalkZone(walkZone);
+		graph.setType(type);
+
+		return graph;
+	}
+
+	/**
+	 * Creates a scene with interactive actors distributed in 3 layers. Every
+	 * actor has a verb for every common verb id.
+	 */
+	public static Scene createScene(String id, int numActors, int numObstacles, Random rnd) {
+		Scene scn = new Scene();
+		scn.setId(id);
+
+		for (int i = 0; i < 3; i++) {
+			SceneLayer layer = new SceneLayer();
+			layer.setName("layer" + i);
+			layer.setVisible(true);
+			scn.addLayer(layer);
+		}
+
+		for (int i = 0; i < numActors; i++) {
+			InteractiveActor a = new InteractiveActor();
+			a.setId("actor" + i);
+			a.setLayer("layer" + (i % 3));
+			a.setInteraction(true);
+			a.setDesc(id + ".actor" + i + ".desc");
+
+			float w = 40 + rnd.nextFloat() * 200;
+			float h = 40 + rnd.nextFloat() * 300;
+			a.getBBox().setVertices(new float[] { 0, 0, w, 0, w, h, 0, h });
+			a.getBBox().setPosition(rnd.nextFloat() * (WORLD_WIDTH - w), rnd.nextFloat() * (WORLD_HEIGHT - h));
+
+			for (String v : VERBS)
+				a.getVerbManager().addVerb(createVerb(v, id, a.getId()));
+
+			scn.addActor(a);
+		}
+
+		Polygon walkZone = createWalkZone(64, rnd);
+		scn.setPolygonalNavGraph(createNavGraph(walkZone, PolygonalNavGraph.Type.VISIBILITY_GRAPH));
+
+		for (BaseActor o : createObstacles(walkZone, numObstacles, rnd))
+			scn.addActor(o);
+
+		scn.getVerbManager().addVerb(createVerb(Verb.INIT_VERB, id, null));
+
+		return scn;
+	}
+
+	public static Verb createVerb(String verbId, String sceneId, String actorId) {
+		Verb v = new Verb(verbId);
+
+		v.add(createAction(SetStateAction.class, "actor", sceneId + "#" + (actorId == null ? "" : actorId), "state",
+				"visited"));
+
+		if (actorId != null)
+			v.add(createAction(SayAction.class, "actor", "player", "text", sceneId + "." + actorId + "." + verbId));
+
+		return v;
+	}
+
+	public static Action createAction(Class<? extends Action> clazz, String... params) {
+		try {
+			Action a = clazz.newInstance();
+
+			for (int i = 0; i < params.length; i += 2)
+				ActionUtils.setParam(a, params[i], params[i + 1]);
+
+			return a;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.VerbManager;
+
+/**
+ * Verb lookups with the 'id.target.state' fallback chain. 'exact' finds the
+ * most specific verb, 'fallback' walks the whole chain to find 'id' and 'miss'
+ * doesn't find anything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerbManagerBenchmark {
+	private static final String[] VERBS = { Verb.LOOKAT_VERB, Verb.ACTION_VERB, Verb.TALKTO_VERB, Verb.USE_VERB,
+			Verb.LEAVE_VERB };
+
+	@Param({ "10", "100" })
+	public int numTargets;
+
+	private final VerbManager verbs = new VerbManager();
+
+	private String[] targets;
+	private int next;
+
+	@Setup
+	public void setup() {
+		HeadlessEngine.start();
+
+		targets = new String[numTargets];
+
+		for (int i = 0; i < numTargets; i++)
+			targets[i] = "item" + i;
+
+		for (String id : VERBS) {
+			verbs.addVerb(new Verb(id));
+
+			for (String target : targets) {
+				Verb v = new Verb(id);
+				v.setTarget(target);
+				verbs.addVerb(v);
+
+				v = new Verb(id);
+				v.setTarget(target);
+				v.setState("open");
+				verbs.addVerb(v);
+			}
+		}
+	}
+
+	@Benchmark
+	public Verb exact() {
+		return verbs.getVerb(Verb.USE_VERB, "open", nextTarget());
+	}
+
+	@Benchmark
+	public Verb fallback() {
+		return verbs.getVerb(Verb.USE_VERB, "closed", "unknown");
+	}
+
+	@Benchmark
+	public Verb miss() {
+		return verbs.getVerb("unknown", "closed", nextTarget());
+	}
+
+	private String nextTarget() {
+		next = (next + 1) % targets.length;
+
+		return targets[next];
+	}
+}
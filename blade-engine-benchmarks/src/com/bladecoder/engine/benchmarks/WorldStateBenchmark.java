@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.util.SerializationHelper;
+import com.bladecoder.engine.util.SerializationHelper.Mode;
+
+/**
+ * Chapter loading and game state save/load for synthetic chapters. The
+ * chapters are written by the ProjectGenerator, the same generator used to
+ * test big games from the command line.
+ * 
+ * 'saveState' serializes the state like World.saveGameState() without writing
+ * the file and the screenshot. 'loadState' is World.loadGameState(), that also
+ * loads the chapter model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldStateBenchmark {
+	/** The first chapter written by the ProjectGenerator */
+	private static final String CHAPTER = "chapter0";
+
+	@Param({ "10", "50" })
+	public int numScenes;
+
+	@Param({ "20" })
+	public int actorsPerScene;
+
+	private FileHandle projectDir;
+	private FileHandle stateFile;
+
+	@Setup
+	public void setup() throws IOException {
+		HeadlessEngine.start();
+
+		projectDir = FileHandle.tempDirectory("blade-benchmark");
+
+		ProjectGenerator g = new ProjectGenerator();
+		g.setWorldSize((int) SyntheticData.WORLD_WIDTH, (int) SyntheticData.WORLD_HEIGHT);
+		g.setScenesPerChapter(numScenes);
+		g.setActorsPerScene(actorsPerScene);
+		g.setSeed(SyntheticData.SEED);
+		g.generate(projectDir.child(EngineAssetManager.MODEL_DIR).file());
+
+		EngineAssetManager.createEditInstance(projectDir.path());
+
+		World w = World.getInstance();
+		w.setWidth((int) SyntheticData.WORLD_WIDTH);
+		w.setHeight((int) SyntheticData.WORLD_HEIGHT);
+		w.setInitChapter(CHAPTER);
+		w.loadChapter(CHAPTER);
+
+		stateFile = projectDir.child("benchmark" + World.GAMESTATE_EXT);
+		stateFile.writeString(saveState(), false, "UTF-8");
+	}
+
+	@TearDown
+	public void tearDown() {
+		World.getInstance().dispose();
+		projectDir.deleteDirectory();
+	}
+
+	@Benchmark
+	public World loadChapter() throws IOException {
+		World.getInstance().loadChapter(CHAPTER);
+
+		return World.getInstance();
+	}
+
+	@Benchmark
+	public String saveState() {
+		SerializationHelper.getInstance().setMode(Mode.STATE);
+
+		return new Json().toJson(World.getInstance());
+	}
+
+	@Benchmark
+	public World loadState() throws IOException {
+		World.getInstance().loadGameState(stateFile);
+
+		return World.getInstance();
+	}
+}
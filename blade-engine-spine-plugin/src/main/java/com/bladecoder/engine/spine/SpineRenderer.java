@@ -28,6 +28,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.AnimationDesc;
+import com.bladecoder.engine.anim.PendingAnimation;
 import com.bladecoder.engine.anim.SpineAnimationDesc;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
@@ -92,6 +93,9 @@ public class SpineRenderer implements ActorRenderer {
 
 	private Polygon bbox;
 
+	/** Animation waiting for its atlas to be loaded */
+	private PendingAnimation pendingAnimation;
+
 	class SkeletonCacheEntry {
 		int refCounter;
 		Skeleton skeleton;
@@ -224,6 +228,9 @@ public class SpineRenderer implements ActorRenderer {
 
 	@Override
 	public void update(float delta) {
+		if (pendingAnimation != null && pendingAnimation.isLoaded())
+			startPendingAnimation();
+
 		if (complete)
 			return;
 
@@ -321,6 +328,9 @@ public class SpineRenderer implements ActorRenderer {
 
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb) {
+		pendingAnimation = null;
+
+		boolean prevFlipX = flipX;
 		SpineAnimationDesc fa = (SpineAnimationDesc) getAnimation(id);
 
 		if (fa == null) {
@@ -329,6 +339,25 @@ public class SpineRenderer implements ActorRenderer {
 			return;
 		}
 
+		SkeletonCacheEntry entry = sourceCache.get(fa.source);
+		String atlas = fa.atlas == null ? fa.source : fa.atlas;
+
+		// Load the atlas in background and keep the current pose until it is
+		// loaded
+		if ((entry == null || entry.skeleton == null) && EngineAssetManager.getInstance().isAsyncLoading()
+				&& !EngineAssetManager.getInstance().isAtlasLoaded(atlas)) {
+
+			if (entry == null || entry.refCounter < 1)
+				loadSource(fa.source, fa.atlas);
+
+			pendingAnimation = new PendingAnimation(id, repeatType, count, cb,
+					EngineAssetManager.ATLASES_DIR + atlas + EngineAssetManager.ATLAS_EXT);
+			flipX = prevFlipX;
+			animationCb = null;
+
+			return;
+		}
+
 		if (currentAnimation != null && currentAnimation.disposeWhenPlayed)
 			disposeSource(currentAnimation.source);
 
@@ -338,10 +367,7 @@ public class SpineRenderer implements ActorRenderer {
 		animationCb = cb;
 
 		// If the source is not loaded. Load it.
-		if (currentSource == null || currentSource.refCounter < 1) {
-			loadSource(fa.source, fa.atlas);
-			EngineAssetManager.getInstance().finishLoading();
-
+		if (currentSource == null || currentSource.refCounter < 1 || currentSource.skeleton == null) {
 			retrieveSource(fa.source, fa.atlas);
 
 			currentSource = sourceCache.get(fa.source);
@@ -382,6 +408,13 @@ public class SpineRenderer implements ActorRenderer {
 		setCurrentAnimation();
 	}
 
+	private void startPendingAnimation() {
+		PendingAnimation p = pendingAnimation;
+		pendingAnimation = null;
+
+		startAnimation(p.id, p.repeatType, p.count, p.cb);
+	}
+
 	private void setCurrentAnimation() {
 		try {
 			// TODO Make setup pose parametrizable in the AnimationDesc
@@ -590,11 +623,14 @@ public class SpineRenderer implements ActorRenderer {
 
 		if (entry == null || entry.refCounter < 1) {
 			loadSource(source, atlas);
-			EngineAssetManager.getInstance().finishLoading();
 			entry = sourceCache.get(source);
 		}
 
 		if (entry.skeleton == null) {
+			// only wait when the atlas is not loaded yet
+			if (!EngineAssetManager.getInstance().isAtlasLoaded(entry.atlas))
+				EngineAssetManager.getInstance().finishLoading();
+
 			TextureAtlas atlasTex = EngineAssetManager.getInstance().getTextureAtlas(atlas == null ? source : atlas);
 
 			SkeletonBinary skel = new SkeletonBinary(atlasTex);
@@ -618,7 +654,7 @@ public class SpineRenderer implements ActorRenderer {
 		SkeletonCacheEntry entry = sourceCache.get(source);
 
 		if (entry.refCounter == 1) {
-			EngineAssetManager.getInstance().disposeAtlas(source);
+			EngineAssetManager.getInstance().disposeAtlas(entry.atlas);
 			entry.animation = null;
 			entry.skeleton = null;
 		}
@@ -674,12 +710,15 @@ public class SpineRenderer implements ActorRenderer {
 
 	@Override
 	public void dispose() {
+		// release only the references taken by this renderer
 		for (SkeletonCacheEntry entry : sourceCache.values()) {
-			EngineAssetManager.getInstance().disposeAtlas(entry.atlas);
+			if (entry.refCounter > 0)
+				EngineAssetManager.getInstance().disposeAtlas(entry.atlas);
 		}
 
 		sourceCache.clear();
 		currentSource = null;
+		pendingAnimation = null;
 		renderer = null;
 		bounds = null;
 	}
@@ -691,6 +730,11 @@ public class SpineRenderer implements ActorRenderer {
 			json.writeValue("fanims", fanims, HashMap.class, AnimationDesc.class);
 			json.writeValue("initAnimation", initAnimation);
 		} else {
+			if (pendingAnimation != null) {
+				pendingAnimation.finishLoading();
+				startPendingAnimation();
+			}
+
 			String currentAnimationId = null;
 
 			if (currentAnimation != null)
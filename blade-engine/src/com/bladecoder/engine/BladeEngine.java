@@ -94,6 +94,9 @@ public class BladeEngine implements ApplicationListener {
 			EngineAssetManager.getInstance().forceResolution(forceRes);
 		}
 
+		// don't block the game when an animation source is not preloaded
+		EngineAssetManager.getInstance().setAsyncLoading(true);
+
 		try {
 			World.getInstance().loadWorldDesc();
 		} catch (Exception e) {
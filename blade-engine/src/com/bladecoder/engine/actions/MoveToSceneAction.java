@@ -62,9 +62,9 @@ public class MoveToSceneAction implements Action {
 			ts = w.getScene(scene);
 		
 		// We must load assets when the target scene is the current scene or when
-		// the scene is cached.
+		// the scene is cached or prefetched.
 		if(ts == w.getCurrentScene() || 
-				(w.getCachedScene(ts.getId()) != null)) {
+				(w.getCachedScene(ts.getId()) != null) || w.getScenePrefetcher().isPrefetched(ts)) {
 			a.loadAssets();
 			EngineAssetManager.getInstance().finishLoading();
 			a.retrieveAssets();
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.anim;
+
+import com.bladecoder.engine.actions.ActionCallback;
+import com.bladecoder.engine.assets.EngineAssetManager;
+
+/**
+ * An animation waiting for its source to be loaded in background.
+ *
+ * The renderer keeps drawing the previous frame and starts the animation
+ * when the source is loaded. The callback is passed to the animation when it
+ * starts.
+ */
+public class PendingAnimation {
+	public final String id;
+	public final Tween.Type repeatType;
+	public final int count;
+	public final ActionCallback cb;
+
+	/** The asset file the animation is waiting for */
+	public final String fileName;
+
+	public PendingAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb, String fileName) {
+		this.id = id;
+		this.repeatType = repeatType;
+		this.count = count;
+		this.cb = cb;
+		this.fileName = fileName;
+	}
+
+	public boolean isLoaded() {
+		return EngineAssetManager.getInstance().isLoaded(fileName);
+	}
+
+	/**
+	 * Blocks until the source is loaded. Used when the state must be complete,
+	 * like when saving the game.
+	 */
+	public void finishLoading() {
+		if (!isLoaded())
+			EngineAssetManager.getInstance().finishLoading();
+	}
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * A file inside the asset archive. The data is read from the memory mapped
+ * archive without copying it to the heap.
+ */
+public class ArchiveFileHandle extends FileHandle {
+	private final AssetArchive archive;
+
+	public ArchiveFileHandle(AssetArchive archive, String fileName) {
+		super(AssetIndex.normalize(fileName), FileType.Internal);
+
+		this.archive = archive;
+	}
+
+	@Override
+	public InputStream read() {
+		ByteBuffer b = archive.slice(path());
+
+		if (b == null)
+			throw new GdxRuntimeException("File not found in asset archive: " + path());
+
+		return new ByteBufferInputStream(b);
+	}
+
+	@Override
+	public byte[] readBytes() {
+		ByteBuffer b = archive.slice(path());
+
+		if (b == null)
+			throw new GdxRuntimeException("File not found in asset archive: " + path());
+
+		byte[] bytes = new byte[b.remaining()];
+		b.get(bytes);
+
+		return bytes;
+	}
+
+	/**
+	 * Returns the slice of the archive. The archive is already mapped, so no
+	 * new mapping is created.
+	 */
+	@Override
+	public ByteBuffer map(MapMode mode) {
+		if (mode != MapMode.READ_ONLY)
+			throw new GdxRuntimeException("Cannot map an archive file in mode " + mode + ": " + path());
+
+		ByteBuffer b = archive.slice(path());
+
+		if (b == null)
+			throw new GdxRuntimeException("File not found in asset archive: " + path());
+
+		return b;
+	}
+
+	@Override
+	public long length() {
+		return archive.length(path());
+	}
+
+	@Override
+	public boolean exists() {
+		return archive.exists(path());
+	}
+
+	@Override
+	public boolean isDirectory() {
+		return archive.exists(path()) && !archive.isFile(path());
+	}
+
+	@Override
+	public long lastModified() {
+		return 0;
+	}
+
+	@Override
+	public FileHandle[] list() {
+		String[] names = archive.list(path());
+		FileHandle[] handles = new FileHandle[names.length];
+
+		for (int i = 0; i < names.length; i++)
+			handles[i] = child(names[i]);
+
+		return handles;
+	}
+
+	@Override
+	public FileHandle child(String name) {
+		String path = path();
+
+		return new ArchiveFileHandle(archive, path.isEmpty() ? name : path + "/" + name);
+	}
+
+	@Override
+	public FileHandle sibling(String name) {
+		String path = path();
+		int i = path.lastIndexOf('/');
+
+		if (path.isEmpty())
+			throw new GdxRuntimeException("Cannot get the sibling of the root.");
+
+		return new ArchiveFileHandle(archive, i == -1 ? name : path.substring(0, i + 1) + name);
+	}
+
+	@Override
+	public FileHandle parent() {
+		String path = path();
+		int i = path.lastIndexOf('/');
+
+		return new ArchiveFileHandle(archive, i == -1 ? "" : path.substring(0, i));
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+
+			if (!buffer.hasRemaining())
+				return -1;
+
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+
+			return len;
+		}
+
+		@Override
+		public long skip(long n) {
+			int s = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + s);
+
+			return s;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Resolves the files from the asset archive. Files not found in the archive
+ * are resolved as internal files.
+ */
+public class ArchiveFileHandleResolver implements FileHandleResolver {
+	private final AssetArchive archive;
+	private final FileHandleResolver fallback = new InternalFileHandleResolver();
+
+	public ArchiveFileHandleResolver(AssetArchive archive) {
+		this.archive = archive;
+	}
+
+	@Override
+	public FileHandle resolve(String fileName) {
+		if (archive.exists(fileName))
+			return new ArchiveFileHandle(archive, fileName);
+
+		return fallback.resolve(fileName);
+	}
+
+	public AssetArchive getArchive() {
+		return archive;
+	}
+}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * All the assets in a single file, used by the desktop packages to avoid
+ * opening thousands of files.
+ *
+ * The file starts with a header with the path, offset and length of every
+ * asset followed by the asset data. The file is memory mapped and every asset
+ * is read from a slice of the mapped buffer.
+ */
+public class AssetArchive {
+	public static final String FILENAME = "assets.pak";
+
+	private static final int MAGIC = 0x424c4150; // BLAP
+	private static final int VERSION = 1;
+
+	private final ByteBuffer data;
+
+	/** Offset and length of every asset in the data buffer */
+	private final HashMap<String, int[]> entries = new HashMap<String, int[]>();
+
+	/** Folders and files of the archive, used to list folders */
+	private final AssetIndex index = new AssetIndex();
+
+	private AssetArchive(ByteBuffer buffer) throws IOException {
+		ByteBuffer header = buffer.duplicate();
+
+		if (header.getInt() != MAGIC || header.getInt() != VERSION)
+			throw new IOException("Not a valid asset archive");
+
+		int count = header.getInt();
+
+		for (int i = 0; i < count; i++) {
+			byte[] name = new byte[header.getShort() & 0xffff];
+			header.get(name);
+
+			String path = new String(name, "UTF-8");
+
+			entries.put(path, new int[] { header.getInt(), header.getInt() });
+			index.addFile(path);
+		}
+
+		data = header.slice();
+	}
+
+	/**
+	 * Maps the archive file in memory.
+	 */
+	public static AssetArchive open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+		try {
+			FileChannel ch = raf.getChannel();
+
+			if (ch.size() > Integer.MAX_VALUE)
+				throw new IOException("Asset archive bigger than 2GB: " + file);
+
+			// the mapping is valid after closing the channel
+			AssetArchive a = new AssetArchive(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+
+			EngineLogger.debug("ASSET ARCHIVE: " + a.entries.size() + " files, " + ch.size() / 1024 + " KB");
+
+			return a;
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * The asset data. The returned buffer doesn't share the position with
+	 * other callers. null if the file is not in the archive.
+	 */
+	public ByteBuffer slice(String path) {
+		int[] e = entries.get(AssetIndex.normalize(path));
+
+		if (e == null)
+			return null;
+
+		ByteBuffer b = data.duplicate();
+		b.position(e[0]);
+		b.limit(e[0] + e[1]);
+
+		return b.slice();
+	}
+
+	public boolean isFile(String path) {
+		return entries.containsKey(AssetIndex.normalize(path));
+	}
+
+	public boolean exists(String path) {
+		return index.exists(path);
+	}
+
+	public int length(String path) {
+		int[] e = entries.get(AssetIndex.normalize(path));
+
+		return e == null ? 0 : e[1];
+	}
+
+	public String[] list(String folder) {
+		return index.list(folder);
+	}
+
+	/** Folders and files in the archive */
+	public AssetIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Writes all the files of the assets folder to the archive. The asset
+	 * index is not added, the archive has its own index.
+	 */
+	public static void create(File assetsDir, File archive) throws IOException {
+		ArrayList<String> paths = new ArrayList<String>();
+		ArrayList<File> files = new ArrayList<File>();
+
+		addFiles(assetsDir, "", archive, paths, files);
+
+		// header
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		DataOutputStream header = new DataOutputStream(headerBytes);
+
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.writeInt(paths.size());
+
+		long offset = 0;
+
+		for (int i = 0; i < paths.size(); i++) {
+			byte[] name = paths.get(i).getBytes("UTF-8");
+			long length = files.get(i).length();
+
+			if (offset + length > Integer.MAX_VALUE)
+				throw new IOException("Assets bigger than 2GB");
+
+			header.writeShort(name.length);
+			header.write(name);
+			header.writeInt((int) offset);
+			header.writeInt((int) length);
+
+			offset += length;
+		}
+
+		header.close();
+
+		// data
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(archive), 65536);
+
+		try {
+			headerBytes.writeTo(out);
+
+			byte[] buf = new byte[65536];
+
+			for (File f : files) {
+				InputStream in = new FileInputStream(f);
+
+				try {
+					int n;
+
+					while ((n = in.read(buf)) != -1)
+						out.write(buf, 0, n);
+				} finally {
+					in.close();
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void addFiles(File dir, String folder, File archive, ArrayList<String> paths,
+			ArrayList<File> files) {
+		File[] list = dir.listFiles();
+
+		if (list == null)
+			return;
+
+		Arrays.sort(list);
+
+		for (File f : list) {
+			String path = folder.isEmpty() ? f.getName() : folder + "/" + f.getName();
+
+			if (f.isDirectory())
+				addFiles(f, path, archive, paths, files);
+			else if (!f.getAbsoluteFile().equals(archive.getAbsoluteFile()) && !path.equals(AssetIndex.FILENAME)) {
+				paths.add(path);
+				files.add(f);
+			}
+		}
+	}
+
+	/**
+	 * Generates the archive from the command line: AssetArchive <assets
+	 * folder> <archive file>
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: AssetArchive <assets folder> <archive file>");
+			return;
+		}
+
+		create(new File(args[0]), new File(args[1]));
+	}
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Index of all the files in the assets folder. It is generated when packaging
+ * the game so the engine doesn't need to list folders, enumerate the jar
+ * entries or check if files exist.
+ *
+ * The file has a line for every folder, ending with '/', followed by a line
+ * for every file in the folder:
+ *
+ * <pre>
+ * atlases/1/
+ * scene1.atlas
+ * scene1.png
+ * </pre>
+ */
+public class AssetIndex {
+	public static final String FILENAME = "asset.index";
+
+	private final HashSet<String> files = new HashSet<String>();
+
+	/** Names of the files and folders in every folder. The root folder is "" */
+	private final HashMap<String, LinkedHashSet<String>> folders = new HashMap<String, LinkedHashSet<String>>();
+
+	public boolean exists(String path) {
+		path = normalize(path);
+
+		return files.contains(path) || folders.containsKey(path);
+	}
+
+	/**
+	 * Names of the files and folders inside the folder. Empty if the folder
+	 * doesn't exist.
+	 */
+	public String[] list(String folder) {
+		LinkedHashSet<String> l = folders.get(normalize(folder));
+
+		return l == null ? new String[0] : l.toArray(new String[l.size()]);
+	}
+
+	public int getNumFiles() {
+		return files.size();
+	}
+
+	private void addFolder(String folder) {
+		if (folders.containsKey(folder))
+			return;
+
+		folders.put(folder, new LinkedHashSet<String>());
+
+		if (!folder.isEmpty()) {
+			int i = folder.lastIndexOf('/');
+			String parent = i == -1 ? "" : folder.substring(0, i);
+
+			addFolder(parent);
+			folders.get(parent).add(folder.substring(i + 1));
+		}
+	}
+
+	private void addFile(String folder, String name) {
+		addFolder(folder);
+		folders.get(folder).add(name);
+		files.add(folder.isEmpty() ? name : folder + "/" + name);
+	}
+
+	void addFile(String path) {
+		int i = path.lastIndexOf('/');
+
+		addFile(i == -1 ? "" : path.substring(0, i), path.substring(i + 1));
+	}
+
+	static String normalize(String path) {
+		path = path.replace('\\', '/');
+
+		while (path.startsWith("./"))
+			path = path.substring(2);
+
+		while (path.startsWith("/"))
+			path = path.substring(1);
+
+		while (path.endsWith("/"))
+			path = path.substring(0, path.length() - 1);
+
+		return path.replace("//", "/");
+	}
+
+	/**
+	 * Reads the index.
+	 *
+	 * @return null if the index doesn't exist.
+	 */
+	public static AssetIndex load(FileHandle file) {
+		BufferedReader r;
+
+		// in Android, reading is cheaper than exists()
+		try {
+			r = new BufferedReader(file.reader("UTF-8"), 8192);
+		} catch (Exception e) {
+			return null;
+		}
+
+		AssetIndex index = new AssetIndex();
+		String folder = "";
+
+		try {
+			String line;
+
+			while ((line = r.readLine()) != null) {
+				if (line.isEmpty())
+					continue;
+
+				if (line.endsWith("/")) {
+					folder = normalize(line);
+					index.addFolder(folder);
+				} else {
+					index.addFile(folder, line);
+				}
+			}
+		} catch (IOException e) {
+			EngineLogger.error("Error reading asset index", e);
+			return null;
+		} finally {
+			try {
+				r.close();
+			} catch (IOException e) {
+			}
+		}
+
+		EngineLogger.debug("ASSET INDEX: " + index.getNumFiles() + " files");
+
+		return index;
+	}
+
+	/**
+	 * Writes the index of the assets folder. The index file is not included.
+	 */
+	public static void create(File assetsDir, File indexFile) throws IOException {
+		Writer w = new OutputStreamWriter(new FileOutputStream(indexFile), "UTF-8");
+
+		try {
+			writeFolder(w, assetsDir, "", indexFile);
+		} finally {
+			w.close();
+		}
+	}
+
+	private static void writeFolder(Writer w, File dir, String folder, File indexFile) throws IOException {
+		File[] list = dir.listFiles();
+
+		if (list == null)
+			return;
+
+		Arrays.sort(list);
+
+		ArrayList<File> subfolders = new ArrayList<File>();
+
+		w.write(folder + "/\n");
+
+		for (File f : list) {
+			if (f.isDirectory())
+				subfolders.add(f);
+			else if (!f.equals(indexFile))
+				w.write(f.getName() + "\n");
+		}
+
+		for (File f : subfolders)
+			writeFolder(w, f, folder.isEmpty() ? f.getName() : folder + "/" + f.getName(), indexFile);
+	}
+
+	/**
+	 * Generates the index from the command line: AssetIndex <assets folder>
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.out.println("Usage: AssetIndex <assets folder>");
+			return;
+		}
+
+		File dir = new File(args[0]);
+		create(dir, new File(dir, FILENAME));
+	}
+}
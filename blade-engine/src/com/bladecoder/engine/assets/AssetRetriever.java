@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import java.util.ArrayList;
+
+/**
+ * Calls retrieveAssets() in a list of consumers over several frames. Every
+ * call to retrieve() stops when the time budget is exhausted and the next call
+ * continues with the next consumer.
+ */
+public class AssetRetriever {
+	private final ArrayList<AssetConsumer> consumers = new ArrayList<AssetConsumer>();
+	private int next;
+
+	public void add(AssetConsumer c) {
+		consumers.add(c);
+	}
+
+	/**
+	 * Retrieves the assets of the next consumers. At least one consumer is
+	 * retrieved in every call.
+	 *
+	 * @param budgetMs
+	 *            Max. time to spend. If <= 0, all the consumers are retrieved.
+	 * @return true when all the consumers are retrieved.
+	 */
+	public boolean retrieve(int budgetMs) {
+		long t0 = System.nanoTime();
+		long budget = budgetMs * 1000000L;
+
+		while (next < consumers.size()) {
+			consumers.get(next++).retrieveAssets();
+
+			if (budgetMs > 0 && System.nanoTime() - t0 >= budget)
+				break;
+		}
+
+		return isDone();
+	}
+
+	public boolean isDone() {
+		return next >= consumers.size();
+	}
+
+	/**
+	 * The fraction of consumers retrieved, from 0 to 1.
+	 */
+	public float getProgress() {
+		return consumers.isEmpty() ? 1f : next / (float) consumers.size();
+	}
+}
@@ -15,14 +15,17 @@
  ******************************************************************************/
 package com.bladecoder.engine.assets;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.jar.JarEntry;
@@ -30,15 +33,16 @@ import java.util.jar.JarFile;
 
 import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.FileHandleResolver;
-import com.badlogic.gdx.assets.loaders.TextureAtlasLoader;
-import com.badlogic.gdx.assets.loaders.TextureLoader;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.badlogic.gdx.assets.loaders.resolvers.ResolutionFileResolver.Resolution;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
@@ -48,6 +52,7 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 
@@ -71,6 +76,10 @@ public class EngineAssetManager extends AssetManager {
 	public static final String ATLAS_EXT = ".atlas";
 	
 	public static final String CHAPTER_EXT = ".chapter.json";
+	public static final String MANIFEST_EXT = ".manifest.json";
+
+	/** Estimated memory of the buffers used to stream a music */
+	public static final long MUSIC_BUFFERS_SIZE = 3 * 40960;
 
 	private static EngineAssetManager instance = null;
 
@@ -78,17 +87,80 @@ public class EngineAssetManager extends AssetManager {
 
 	private EngineResolutionFileResolver resResolver;
 
+	/** When not null, the file names of the assets loaded are added here */
+	private ArrayList<String> recordedAssets;
+
+	/** When true, renderers load the sources not preloaded in background */
+	private boolean asyncLoading;
+
+	/** Decodes the images in parallel. null if disabled */
+	private TextureDecoder textureDecoder;
+	private boolean textureDecoderCreated;
+
+	/** Live references of the assets taken with acquire() */
+	private final HashMap<String, Integer> references = new HashMap<String, Integer>();
+
 	protected EngineAssetManager() {
-		this(new InternalFileHandleResolver());
+		this(openArchive());
 //		getLogger().setLevel(Application.LOG_DEBUG);
 	}
 
+	private EngineAssetManager(AssetArchive archive) {
+		this(archive != null ? new ArchiveFileHandleResolver(archive) : new InternalFileHandleResolver());
+
+		// generated when packaging the game. Gdx is not initialized in tools
+		// like the project generator, that only use the instance to serialize.
+		if (archive != null)
+			resResolver.setIndex(archive.getIndex());
+		else if (Gdx.files != null)
+			resResolver.setIndex(AssetIndex.load(resResolver.baseResolve(AssetIndex.FILENAME)));
+	}
+
+	/**
+	 * Opens the asset archive of the desktop packages. It is only searched next
+	 * to the game jar, so the loose assets are used when running from the
+	 * classes directory in development and in the editor.
+	 *
+	 * @return null if there is no archive.
+	 */
+	private static AssetArchive openArchive() {
+		if (Gdx.app == null || Gdx.app.getType() != ApplicationType.Desktop)
+			return null;
+
+		File f;
+
+		try {
+			File jar = new File(EngineAssetManager.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+			if (!jar.isFile() || !jar.getName().endsWith(".jar"))
+				return null;
+
+			f = new File(jar.getParentFile(), AssetArchive.FILENAME);
+		} catch (Exception e) {
+			return null;
+		}
+
+		if (!f.isFile())
+			return null;
+
+		try {
+			AssetArchive archive = AssetArchive.open(f);
+
+			EngineLogger.debug("ASSET ARCHIVE MOUNTED: " + f.getAbsolutePath());
+
+			return archive;
+		} catch (IOException e) {
+			EngineLogger.error("Error opening asset archive " + f.getAbsolutePath(), e);
+			return null;
+		}
+	}
+
 	protected EngineAssetManager(FileHandleResolver resolver) {
 		super(resolver);
 
 		resResolver = new EngineResolutionFileResolver(resolver);
-		setLoader(Texture.class, new TextureLoader(resResolver));
-		setLoader(TextureAtlas.class, new TextureAtlasLoader(resResolver));
+		setLoader(Texture.class, new EngineTextureLoader(resResolver, this));
+		setLoader(TextureAtlas.class, new EngineTextureAtlasLoader(resResolver, this));
 		setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
 		setLoader(BitmapFont.class, ".ttf", new FreetypeFontLoader(resolver));
 
@@ -152,6 +224,271 @@ public class EngineAssetManager extends AssetManager {
 		return !update();
 	}
 
+	@Override
+	public synchronized boolean update() {
+		boolean done = super.update();
+
+		// the images decoded and not taken belong to cancelled assets
+		if (done && textureDecoder != null)
+			textureDecoder.clear();
+
+		return done;
+	}
+
+	/**
+	 * The pool that decodes the textures and atlas pages in parallel. Created
+	 * on demand because the number of threads is read from the config.
+	 * 
+	 * @return null if the parallel decoding is disabled.
+	 */
+	public synchronized TextureDecoder getTextureDecoder() {
+		if (!textureDecoderCreated) {
+			textureDecoderCreated = true;
+
+			int threads = Config.getProperty(Config.TEXTURE_DECODER_THREADS,
+					Gdx.app.getType() == ApplicationType.Desktop ? 0 : -1);
+
+			if (threads >= 0)
+				textureDecoder = new TextureDecoder(this, threads);
+		}
+
+		return textureDecoder;
+	}
+
+	/**
+	 * Starts decoding the images of the texture or atlas before the asset
+	 * manager loads them one after another.
+	 */
+	private void decodeAhead(String fileName, Class<?> type) {
+		if (type != Texture.class && type != TextureAtlas.class)
+			return;
+
+		TextureDecoder decoder = getTextureDecoder();
+
+		if (decoder == null)
+			return;
+
+		if (type == Texture.class)
+			decoder.decode(fileName, resResolver.resolve(fileName));
+		else
+			decoder.decodeAtlas(fileName, resResolver.resolve(fileName));
+	}
+
+	@Override
+	public synchronized <T> void load(String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+		super.load(fileName, type, parameter);
+
+		if (recordedAssets != null && !recordedAssets.contains(fileName))
+			recordedAssets.add(fileName);
+	}
+
+	/**
+	 * When true, the renderers don't block until the source of an animation is
+	 * loaded. They keep the previous frame and start the animation when the
+	 * source is loaded. The application must call update() every frame.
+	 */
+	public void setAsyncLoading(boolean asyncLoading) {
+		this.asyncLoading = asyncLoading;
+	}
+
+	public boolean isAsyncLoading() {
+		return asyncLoading;
+	}
+
+	/**
+	 * Takes a reference to the asset. The asset is queued for loading only
+	 * when the first reference is taken.
+	 */
+	public synchronized <T> void acquire(String fileName, Class<T> type) {
+		Integer count = references.get(fileName);
+
+		if (count == null) {
+			references.put(fileName, 1);
+			load(fileName, type);
+			decodeAhead(fileName, type);
+		} else {
+			references.put(fileName, count + 1);
+
+			if (recordedAssets != null && !recordedAssets.contains(fileName))
+				recordedAssets.add(fileName);
+		}
+	}
+
+	/**
+	 * Releases a reference taken with acquire(). The asset is unloaded, or
+	 * removed from the queue, when the last reference is released.
+	 */
+	public synchronized void release(String fileName) {
+		Integer count = references.get(fileName);
+
+		if (count == null) {
+			EngineLogger.debug("Releasing not acquired asset: " + fileName);
+			return;
+		}
+
+		if (count == 1) {
+			references.remove(fileName);
+			unloadOrCancel(fileName);
+		} else {
+			references.put(fileName, count - 1);
+		}
+	}
+
+	/**
+	 * Number of references taken with acquire() and not released.
+	 */
+	public synchronized int getReferenceCount(String fileName) {
+		Integer count = references.get(fileName);
+
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Logs the live references of the assets.
+	 * 
+	 * @param fileNames
+	 *            The assets to log. If null, all the acquired assets are
+	 *            logged.
+	 */
+	public synchronized void dumpReferences(String title, Collection<String> fileNames) {
+		ArrayList<String> names = new ArrayList<String>(fileNames == null ? references.keySet() : fileNames);
+
+		Collections.sort(names);
+
+		EngineLogger.debug(title);
+
+		for (String n : names) {
+			EngineLogger.debug("\t" + n + " refs: " + getReferenceCount(n) + (isLoaded(n) ? "" : " (queued)"));
+		}
+	}
+
+	/**
+	 * Unloads the asset. If it is queued and not loaded yet, it is removed from
+	 * the queue.
+	 */
+	public void unloadOrCancel(String fileName) {
+		try {
+			unload(fileName);
+		} catch (GdxRuntimeException e) {
+			// not loaded nor queued
+		}
+	}
+
+	/**
+	 * Adds to the list the file names of the assets loaded until
+	 * stopRecording() is called. Used to know the assets used by a scene.
+	 */
+	public void startRecording(ArrayList<String> assets) {
+		recordedAssets = assets;
+	}
+
+	public void stopRecording() {
+		recordedAssets = null;
+	}
+
+	/**
+	 * Estimated memory used by a loaded asset. 0 if the asset is not loaded or
+	 * is other type.
+	 */
+	public long getAssetSize(String fileName) {
+		return getAssetGpuSize(fileName) + getAssetCpuSize(fileName);
+	}
+
+	/**
+	 * Estimated video memory used by a loaded texture, atlas or 3d model. 0 if
+	 * the asset is not loaded or is other type.
+	 */
+	public long getAssetGpuSize(String fileName) {
+		if (!isLoaded(fileName))
+			return 0;
+
+		Class<?> type = getAssetType(fileName);
+
+		if (type == Texture.class) {
+			return getTextureSize(get(fileName, Texture.class));
+		} else if (type == TextureAtlas.class) {
+			long size = 0;
+
+			for (Texture t : get(fileName, TextureAtlas.class).getTextures())
+				size += getTextureSize(t);
+
+			return size;
+		} else if (type == Model.class) {
+			long size = 0;
+
+			for (Mesh m : get(fileName, Model.class).meshes)
+				size += (long) m.getNumVertices() * m.getVertexSize() + m.getNumIndices() * 2;
+
+			// the model textures are loaded as dependencies
+			Array<String> deps = getDependencies(fileName);
+
+			if (deps != null) {
+				for (String d : deps)
+					if (isLoaded(d, Texture.class))
+						size += getTextureSize(get(d, Texture.class));
+			}
+
+			return size;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Estimated memory, not in the GPU, used by a loaded sound or music. 0 if
+	 * the asset is not loaded or is other type.
+	 */
+	public long getAssetCpuSize(String fileName) {
+		if (!isLoaded(fileName))
+			return 0;
+
+		Class<?> type = getAssetType(fileName);
+
+		if (type == Sound.class) {
+			// Sounds are decoded to PCM. Compressed files are around 10 times
+			// smaller.
+			long length = getFileHandleResolver().resolve(fileName).length();
+
+			return fileName.toLowerCase().endsWith(".wav") ? length : length * 10;
+		} else if (type == Music.class) {
+			// Music is streamed, only the decoding buffers are in memory
+			return MUSIC_BUFFERS_SIZE;
+		}
+
+		return 0;
+	}
+
+	public static long getTextureSize(Texture t) {
+		return getTextureSize(t.getWidth(), t.getHeight(), t.getTextureData().getFormat(),
+				t.getTextureData().useMipMaps());
+	}
+
+	public static long getTextureSize(int width, int height, Format format, boolean useMipMaps) {
+		int bpp;
+
+		switch (format) {
+		case Alpha:
+		case Intensity:
+			bpp = 1;
+			break;
+		case LuminanceAlpha:
+		case RGB565:
+		case RGBA4444:
+			bpp = 2;
+			break;
+		case RGB888:
+			bpp = 3;
+			break;
+		default:
+			bpp = 4;
+		}
+
+		long size = (long) width * height * bpp;
+
+		// mipmaps use 1/3 more
+		return useMipMaps ? size * 4 / 3 : size;
+	}
+
 	// public BitmapFont loadFont(String style) {
 	// String key =Config.getProperty(style, null);
 	//
@@ -192,7 +529,7 @@ public class EngineAssetManager extends AssetManager {
 	// }
 
 	public void loadAtlas(String name) {
-		load(ATLASES_DIR + name + ATLAS_EXT, TextureAtlas.class);
+		acquire(ATLASES_DIR + name + ATLAS_EXT, TextureAtlas.class);
 	}
 
 	public boolean isAtlasLoaded(String name) {
@@ -200,8 +537,7 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void disposeAtlas(String name) {
-		if (isAtlasLoaded(name))
-			unload(ATLASES_DIR + name + ATLAS_EXT);
+		release(ATLASES_DIR + name + ATLAS_EXT);
 	}
 
 	public FileHandle getModelFile(String filename) {
@@ -255,12 +591,18 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void loadTexture(String filename) {
-		load(filename, Texture.class);
+		acquire(filename, Texture.class);
 	}
 
 	public void disposeTexture(Texture t) {
-		if (isLoaded(getAssetFileName(t)))
-			unload(getAssetFileName(t));
+		String filename = getAssetFileName(t);
+
+		if (filename != null)
+			release(filename);
+	}
+
+	public void disposeTexture(String filename) {
+		release(filename);
 	}
 
 	public Texture getTexture(String filename) {
@@ -271,8 +613,21 @@ public class EngineAssetManager extends AssetManager {
 		return get(filename, Texture.class);
 	}
 
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		references.clear();
+
+		if (textureDecoder != null)
+			textureDecoder.clear();
+	}
+
 	public void dispose() {
 		super.dispose();
+
+		if (textureDecoder != null)
+			textureDecoder.dispose();
+
 		instance = null;
 	}
 
@@ -291,8 +646,7 @@ public class EngineAssetManager extends AssetManager {
 			return;
 		}		
 		
-		if (isLoaded(MUSIC_DIR + filename))
-			unload(MUSIC_DIR + filename);
+		unloadOrCancel(MUSIC_DIR + filename);
 	}
 
 	public Music getMusic(String filename) {
@@ -328,8 +682,7 @@ public class EngineAssetManager extends AssetManager {
 			return;
 		}		
 		
-		if (isLoaded(SOUND_DIR + filename))
-			unload(SOUND_DIR + filename);
+		unloadOrCancel(SOUND_DIR + filename);
 	}
 
 	public FileHandle getSpine(String name) {
@@ -337,7 +690,7 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void loadModel3D(String name) {
-		load(MODEL3D_DIR + name + MODEL3D_EXT, Model.class);
+		acquire(MODEL3D_DIR + name + MODEL3D_EXT, Model.class);
 	}
 
 	public Model getModel3D(String name) {
@@ -345,8 +698,7 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public void disposeModel3D(String name) {
-		if (isLoaded(MODEL3D_DIR + name + MODEL3D_EXT))
-			unload(MODEL3D_DIR + name + MODEL3D_EXT);
+		release(MODEL3D_DIR + name + MODEL3D_EXT);
 	}
 
 	public boolean assetExists(String filename) {
@@ -382,6 +734,9 @@ public class EngineAssetManager extends AssetManager {
 	}
 
 	public String[] listAssetFiles(String base) {
+		if (resResolver.getIndex() != null)
+			return resResolver.getIndex().list(base);
+
 		FileHandleResolver resolver = resResolver.getBaseResolver();
 
 		String list[];
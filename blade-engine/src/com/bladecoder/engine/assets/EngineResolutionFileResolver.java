@@ -30,6 +30,9 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 	private Resolution bestDesc;
 	private String fixResolution;
 
+	/** When not null, the files are searched in the index instead of the file system */
+	private AssetIndex index;
+
 	public EngineResolutionFileResolver(FileHandleResolver baseResolver) {
 		this.baseResolver = baseResolver;
 	}
@@ -37,7 +40,12 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 	@Override
 	public FileHandle resolve(String fileName) {		
 		FileHandle originalHandle = new FileHandle(fileName);
-		FileHandle handle = baseResolver.resolve(resolve(originalHandle, bestDesc.folder));
+		String resFileName = resolve(originalHandle, bestDesc.folder);
+
+		if (index != null)
+			return baseResolver.resolve(index.exists(resFileName) ? resFileName : fileName);
+
+		FileHandle handle = baseResolver.resolve(resFileName);
 		
 		if (!FileUtils.exists(handle))
 			handle = baseResolver.resolve(fileName);
@@ -60,6 +68,10 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 	
 	public boolean exists(String fileName) {
 		FileHandle originalHandle = new FileHandle(fileName);
+
+		if (index != null)
+			return index.exists(resolve(originalHandle, bestDesc.folder)) || index.exists(fileName);
+
 		FileHandle handle = baseResolver.resolve(resolve(originalHandle, bestDesc.folder));
 		
 		if (FileUtils.exists(handle))
@@ -73,6 +85,14 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 		return false;
 	}
 	
+	public AssetIndex getIndex() {
+		return index;
+	}
+
+	public void setIndex(AssetIndex index) {
+		this.index = index;
+	}
+
 	public FileHandleResolver getBaseResolver() {
 		return baseResolver;
 	}
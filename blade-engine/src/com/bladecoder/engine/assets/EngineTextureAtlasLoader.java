@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureAtlasLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Atlas loader that starts decoding all the pages in the TextureDecoder before
+ * the pages are loaded one after another.
+ */
+public class EngineTextureAtlasLoader extends TextureAtlasLoader {
+	private final EngineAssetManager manager;
+
+	public EngineTextureAtlasLoader(FileHandleResolver resolver, EngineAssetManager manager) {
+		super(resolver);
+
+		this.manager = manager;
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public Array<AssetDescriptor> getDependencies(String fileName, FileHandle atlasFile,
+			TextureAtlasParameter parameter) {
+		Array<AssetDescriptor> deps = super.getDependencies(fileName, atlasFile, parameter);
+		TextureDecoder decoder = manager.getTextureDecoder();
+
+		if (decoder != null)
+			decoder.decodeAtlasPages(fileName, deps);
+
+		return deps;
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+
+/**
+ * Texture loader that uses the images decoded by the TextureDecoder. If the
+ * image is not in the decoder, it is decoded here like the TextureLoader does.
+ */
+public class EngineTextureLoader extends TextureLoader {
+	private final EngineAssetManager manager;
+
+	public EngineTextureLoader(FileHandleResolver resolver, EngineAssetManager manager) {
+		super(resolver);
+
+		this.manager = manager;
+	}
+
+	@Override
+	public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureParameter parameter) {
+		TextureDecoder decoder = this.manager.getTextureDecoder();
+		Pixmap pixmap = decoder == null ? null : decoder.take(fileName);
+
+		if (pixmap == null) {
+			super.loadAsync(manager, fileName, file, parameter);
+			return;
+		}
+
+		if (parameter != null && parameter.textureData != null) {
+			pixmap.dispose();
+			super.loadAsync(manager, fileName, file, parameter);
+			return;
+		}
+
+		// FileTextureData keeps the texture managed, it is reloaded from the
+		// file when the context is lost
+		TextureParameter p = new TextureParameter();
+
+		if (parameter != null) {
+			p.texture = parameter.texture;
+			p.textureData = new FileTextureData(file, pixmap, parameter.format, parameter.genMipMaps);
+		} else {
+			p.textureData = new FileTextureData(file, pixmap, null, false);
+		}
+
+		super.loadAsync(manager, fileName, file, p);
+	}
+}
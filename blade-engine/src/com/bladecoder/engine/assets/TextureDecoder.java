@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.assets;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Decodes images in a pool of worker threads.
+ *
+ * The AssetManager loads the textures one after another in a single thread.
+ * The images of the textures and atlas pages are decoded in parallel as soon
+ * as they are queued, and the texture loader takes the decoded pixmap instead
+ * of decoding the image again. The textures are still uploaded in the GL
+ * thread in the queue order.
+ */
+public class TextureDecoder {
+	private final AssetManager manager;
+	private final ExecutorService executor;
+	private final int numThreads;
+
+	/** Decoding or decoded images by asset file name */
+	private final ConcurrentHashMap<String, Future<Pixmap>> pending = new ConcurrentHashMap<String, Future<Pixmap>>();
+
+	/** Incremented by clear(). The atlases parsed before are dropped */
+	private int generation;
+
+	/** Atlases whose pages were submitted by the atlas loader */
+	private final HashSet<String> loaderAtlases = new HashSet<String>();
+
+	/**
+	 * @param numThreads
+	 *            Number of decoding threads. If <= 0, the number of cores.
+	 */
+	public TextureDecoder(AssetManager manager, int numThreads) {
+		this.manager = manager;
+
+		if (numThreads <= 0)
+			numThreads = Runtime.getRuntime().availableProcessors();
+
+		this.numThreads = numThreads;
+
+		executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+			private int count;
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "TextureDecoder-" + count++);
+
+				// don't keep the application alive
+				t.setDaemon(true);
+
+				return t;
+			}
+		});
+
+		EngineLogger.debug("TEXTURE DECODER THREADS: " + numThreads);
+	}
+
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	/**
+	 * Only the formats decoded to a Pixmap by TextureData.Factory. Compressed
+	 * formats (.etc1, .ktx, .cim) are loaded by the texture loader.
+	 */
+	public static boolean isSupported(String fileName) {
+		String n = fileName.toLowerCase();
+
+		return n.endsWith(".png") || n.endsWith(".jpg") || n.endsWith(".jpeg") || n.endsWith(".bmp");
+	}
+
+	/**
+	 * Starts decoding the image. Does nothing if it is already decoding or the
+	 * texture is loaded.
+	 */
+	public void decode(String fileName, final FileHandle file) {
+		if (!isSupported(fileName) || pending.containsKey(fileName) || manager.isLoaded(fileName))
+			return;
+
+		submit(fileName, file);
+	}
+
+	/**
+	 * Starts decoding the image. Doesn't call the asset manager, so it can be
+	 * called holding the decoder lock from the pool threads.
+	 */
+	private void submit(String fileName, final FileHandle file) {
+		if (pending.containsKey(fileName))
+			return;
+
+		Future<Pixmap> f = executor.submit(new Callable<Pixmap>() {
+			@Override
+			public Pixmap call() throws Exception {
+				return new Pixmap(file);
+			}
+		});
+
+		if (pending.putIfAbsent(fileName, f) != null)
+			discard(f);
+	}
+
+	/**
+	 * Starts decoding all the pages of the atlas. The atlas file is parsed in
+	 * the pool too. The pages are dropped if the queue drained or the atlas
+	 * loader submitted them before the atlas is parsed.
+	 */
+	public void decodeAtlas(final String fileName, final FileHandle atlasFile) {
+		final int gen;
+
+		synchronized (this) {
+			gen = generation;
+		}
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				ArrayList<Page> pages = new ArrayList<Page>();
+
+				try {
+					TextureAtlasData data = new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+
+					// the asset manager is not called holding the decoder lock.
+					// The GL thread calls the decoder holding the manager lock.
+					for (Page p : data.getPages()) {
+						String name = getPageFileName(p);
+
+						if (isSupported(name) && !manager.isLoaded(name))
+							pages.add(p);
+					}
+				} catch (Exception e) {
+					// the atlas loader will report the error
+					EngineLogger.debug("TEXTURE DECODER: Error reading " + atlasFile.path());
+					return;
+				}
+
+				synchronized (TextureDecoder.this) {
+					if (gen != generation || loaderAtlases.contains(fileName))
+						return;
+
+					for (Page p : pages)
+						submit(getPageFileName(p), p.textureFile);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Starts decoding the pages of the atlas. Called by the atlas loader when
+	 * it resolves the pages, in the queue order.
+	 */
+	@SuppressWarnings("rawtypes")
+	public void decodeAtlasPages(String fileName, Array<AssetDescriptor> pages) {
+		synchronized (this) {
+			loaderAtlases.add(fileName);
+		}
+
+		for (AssetDescriptor d : pages)
+			decode(d.fileName, d.file);
+	}
+
+	/**
+	 * The file names are the same that the TextureAtlasLoader uses for the
+	 * page textures.
+	 */
+	private static String getPageFileName(Page p) {
+		return p.textureFile.path().replaceAll("\\\\", "/");
+	}
+
+	/**
+	 * Waits until the image is decoded and removes it from the decoder. The
+	 * caller owns the pixmap.
+	 *
+	 * @return null if the image is not being decoded.
+	 */
+	public Pixmap take(String fileName) {
+		Future<Pixmap> f = pending.remove(fileName);
+
+		if (f == null)
+			return null;
+
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GdxRuntimeException("Interrupted decoding " + fileName, e);
+		} catch (ExecutionException e) {
+			throw new GdxRuntimeException("Error decoding " + fileName, e.getCause());
+		}
+	}
+
+	/**
+	 * Disposes the images not taken. Called when the asset manager queue is
+	 * empty, so they will not be taken. The atlases being parsed are dropped.
+	 */
+	public synchronized void clear() {
+		generation++;
+		loaderAtlases.clear();
+
+		for (Map.Entry<String, Future<Pixmap>> e : pending.entrySet()) {
+			if (pending.remove(e.getKey(), e.getValue())) {
+				EngineLogger.debug("TEXTURE DECODER: Discarding " + e.getKey());
+				discard(e.getValue());
+			}
+		}
+	}
+
+	public void dispose() {
+		clear();
+		executor.shutdown();
+	}
+
+	/**
+	 * Disposes the pixmap when it is decoded.
+	 */
+	private void discard(final Future<Pixmap> f) {
+		if (f.cancel(false))
+			return;
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					f.get().dispose();
+				} catch (Exception e) {
+					// nothing to dispose
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.Application.ApplicationType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.Json.Serializable;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.bladecoder.engine.anim.AnimationDesc;
+import com.bladecoder.engine.anim.SpineAnimationDesc;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.i18n.I18N;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * The assets loaded by every scene of a chapter, baked by the editor when
+ * saving the chapter.
+ *
+ * When a scene has a manifest, all its assets are queued at once, the biggest
+ * first, so the biggest textures start decoding first. The actors still take
+ * their own references when the scene is loaded, but the assets are already
+ * queued. The manifest references are released once the assets are retrieved,
+ * so the assets not used by the actors in their current state are unloaded.
+ *
+ * The assets of I18N images are not in the manifest because they depend on
+ * the locale.
+ */
+public class AssetManifest implements Serializable {
+
+	public static class Entry {
+		public static final String ATLAS = "atlas";
+		public static final String TEXTURE = "texture";
+		public static final String SOUND = "sound";
+		public static final String MUSIC = "music";
+		public static final String MODEL3D = "model3d";
+
+		public String fileName;
+		public String type;
+
+		/** Estimated bytes used when loaded. Used to sort the entries */
+		public long size;
+
+		public Entry() {
+		}
+
+		public Entry(String fileName, String type, long size) {
+			this.fileName = fileName;
+			this.type = type;
+			this.size = size;
+		}
+
+		public Class<?> getAssetClass() {
+			if (ATLAS.equals(type))
+				return TextureAtlas.class;
+			else if (SOUND.equals(type))
+				return Sound.class;
+			else if (MUSIC.equals(type))
+				return Music.class;
+			else if (MODEL3D.equals(type))
+				return Model.class;
+
+			return Texture.class;
+		}
+
+		/** OGG files are not supported in IOS */
+		public boolean isSupported() {
+			return Gdx.app.getType() != ApplicationType.iOS || !fileName.toLowerCase().endsWith(".ogg");
+		}
+	}
+
+	/** Entries for every scene id, the biggest first */
+	private final HashMap<String, ArrayList<Entry>> scenes = new HashMap<String, ArrayList<Entry>>();
+
+	/**
+	 * The assets of the scene, the biggest first. null if the scene is not in
+	 * the manifest.
+	 */
+	public ArrayList<Entry> get(String sceneId) {
+		return scenes.get(sceneId);
+	}
+
+	public HashMap<String, ArrayList<Entry>> getScenes() {
+		return scenes;
+	}
+
+	/**
+	 * Creates the manifest from the model. The assets are the same that
+	 * Scene.loadAssets() loads for the initial state of the scene. The sizes
+	 * are read from the asset files headers, the assets are not loaded.
+	 */
+	public static AssetManifest create(Collection<Scene> scenes) {
+		AssetManifest m = new AssetManifest();
+
+		for (Scene s : scenes) {
+			HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+			if (s.getBackgroundAtlas() != null && !s.getBackgroundAtlas().isEmpty())
+				addEntry(entries, EngineAssetManager.ATLASES_DIR + s.getBackgroundAtlas()
+						+ EngineAssetManager.ATLAS_EXT, Entry.ATLAS);
+
+			if (s.getMusicDesc() != null && s.getMusicDesc().getFilename() != null)
+				addEntry(entries, EngineAssetManager.MUSIC_DIR + s.getMusicDesc().getFilename(), Entry.MUSIC);
+
+			for (BaseActor a : s.getActors().values()) {
+				if (a instanceof InteractiveActor && ((InteractiveActor) a).getSounds() != null) {
+					for (SoundFX fx : ((InteractiveActor) a).getSounds().values())
+						addEntry(entries, EngineAssetManager.SOUND_DIR + fx.getFilename(), Entry.SOUND);
+				}
+
+				if (a instanceof SpriteActor)
+					addRenderer(entries, ((SpriteActor) a).getRenderer());
+			}
+
+			ArrayList<Entry> sorted = new ArrayList<Entry>(entries.values());
+
+			Collections.sort(sorted, new Comparator<Entry>() {
+				@Override
+				public int compare(Entry a, Entry b) {
+					long d = b.size - a.size;
+
+					return d > 0 ? 1 : d < 0 ? -1 : a.fileName.compareTo(b.fileName);
+				}
+			});
+
+			m.scenes.put(s.getId(), sorted);
+		}
+
+		return m;
+	}
+
+	private static void addRenderer(HashMap<String, Entry> entries, ActorRenderer r) {
+		if (r == null || r.getAnimations() == null)
+			return;
+
+		for (AnimationDesc fa : r.getAnimations().values()) {
+			if (fa.preload)
+				addAnimation(entries, r, fa);
+		}
+
+		if (r.getInitAnimation() != null) {
+			AnimationDesc fa = r.getAnimations().get(r.getInitAnimation());
+
+			// flipped animations use the source of the opposite direction
+			if (fa == null)
+				fa = r.getAnimations().get(AnimationDesc.getFlipId(r.getInitAnimation()));
+
+			if (fa != null)
+				addAnimation(entries, r, fa);
+		}
+	}
+
+	private static void addAnimation(HashMap<String, Entry> entries, ActorRenderer r, AnimationDesc fa) {
+		if (fa.source == null || fa.source.isEmpty())
+			return;
+
+		if (fa instanceof SpineAnimationDesc) {
+			String atlas = ((SpineAnimationDesc) fa).atlas;
+
+			addEntry(entries, EngineAssetManager.ATLASES_DIR + (atlas == null ? fa.source : atlas)
+					+ EngineAssetManager.ATLAS_EXT, Entry.ATLAS);
+		} else if (r instanceof AtlasRenderer) {
+			addEntry(entries, EngineAssetManager.ATLASES_DIR + fa.source + EngineAssetManager.ATLAS_EXT,
+					Entry.ATLAS);
+		} else if (r instanceof Sprite3DRenderer) {
+			addEntry(entries, EngineAssetManager.MODEL3D_DIR + fa.source + EngineAssetManager.MODEL3D_EXT,
+					Entry.MODEL3D);
+		} else if (r instanceof ImageRenderer && fa.source.charAt(0) != I18N.PREFIX) {
+			addEntry(entries, EngineAssetManager.IMAGE_DIR + fa.source, Entry.TEXTURE);
+		}
+	}
+
+	private static void addEntry(HashMap<String, Entry> entries, String fileName, String type) {
+		if (entries.containsKey(fileName))
+			return;
+
+		EngineAssetManager am = EngineAssetManager.getInstance();
+		FileHandle f = Entry.ATLAS.equals(type) || Entry.TEXTURE.equals(type) ? am.getResAsset(fileName)
+				: am.getAsset(fileName);
+
+		if (!f.exists()) {
+			EngineLogger.error("MANIFEST: Asset not found " + fileName);
+			return;
+		}
+
+		entries.put(fileName, new Entry(fileName, type, getSize(f, type)));
+	}
+
+	private static long getSize(FileHandle f, String type) {
+		if (Entry.ATLAS.equals(type)) {
+			long size = 0;
+			TextureAtlasData data = new TextureAtlasData(f, f.parent(), false);
+
+			for (Page p : data.getPages()) {
+				if (p.width > 0 && p.height > 0)
+					size += EngineAssetManager.getTextureSize((int) p.width, (int) p.height, p.format,
+							p.useMipMaps);
+				else
+					size += getImageSize(p.textureFile);
+			}
+
+			return size;
+		} else if (Entry.TEXTURE.equals(type)) {
+			return getImageSize(f);
+		} else if (Entry.SOUND.equals(type)) {
+			// Sounds are decoded to PCM
+			return f.name().toLowerCase().endsWith(".wav") ? f.length() : f.length() * 10;
+		} else if (Entry.MUSIC.equals(type)) {
+			return EngineAssetManager.MUSIC_BUFFERS_SIZE;
+		}
+
+		return f.length();
+	}
+
+	/**
+	 * Decoded size of an image. The dimensions are read from the header of PNG
+	 * files. For other formats, it is estimated from the file size.
+	 */
+	private static long getImageSize(FileHandle f) {
+		if (f.name().toLowerCase().endsWith(".png")) {
+			DataInputStream in = new DataInputStream(f.read());
+
+			try {
+				// signature (8), IHDR length and type (8), width, height
+				in.skipBytes(16);
+				int w = in.readInt();
+				int h = in.readInt();
+
+				return EngineAssetManager.getTextureSize(w, h, Format.RGBA8888, false);
+			} catch (IOException e) {
+				EngineLogger.error("MANIFEST: Error reading " + f.path());
+			} finally {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+
+		return f.length() * 4;
+	}
+
+	public static AssetManifest load(FileHandle file) {
+		Json json = new Json();
+		json.setIgnoreUnknownFields(true);
+
+		AssetManifest m = new AssetManifest();
+		m.read(json, new JsonReader().parse(file.reader("UTF-8")));
+
+		return m;
+	}
+
+	public void save(FileHandle file) throws IOException {
+		Json json = new Json();
+		String s = EngineLogger.debugMode() ? json.prettyPrint(this) : json.toJson(this);
+
+		Writer w = file.writer(false, "UTF-8");
+
+		try {
+			w.write(s);
+		} finally {
+			w.close();
+		}
+	}
+
+	@Override
+	public void write(Json json) {
+		for (Map.Entry<String, ArrayList<Entry>> s : scenes.entrySet()) {
+			json.writeArrayStart(s.getKey());
+
+			for (Entry e : s.getValue()) {
+				json.writeObjectStart();
+				json.writeValue("file", e.fileName);
+				json.writeValue("type", e.type);
+				json.writeValue("size", e.size);
+				json.writeObjectEnd();
+			}
+
+			json.writeArrayEnd();
+		}
+	}
+
+	@Override
+	public void read(Json json, JsonValue jsonData) {
+		scenes.clear();
+
+		for (JsonValue s = jsonData.child; s != null; s = s.next) {
+			ArrayList<Entry> entries = new ArrayList<Entry>();
+
+			for (JsonValue e = s.child; e != null; e = e.next)
+				entries.add(new Entry(e.getString("file"), e.getString("type"), e.getLong("size", 0)));
+
+			scenes.put(s.name(), entries);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.bladecoder.engine.assets.EngineAssetManager;
+
+/**
+ * Estimated memory used by the assets of the loaded scenes: the current scene,
+ * the cached scenes and the prefetched scenes.
+ *
+ * Every asset is attributed to the scene and the actor that loaded it. An
+ * asset shared by several actors or scenes is listed for every owner but
+ * counted only once in the totals.
+ */
+public class AssetMemoryReport {
+	/** Owner of the scene music */
+	public static final String MUSIC_OWNER = "<music>";
+
+	public static class Entry {
+		public final String scene;
+		public final String owner;
+		public final String fileName;
+		public final String type;
+
+		/** Estimated bytes of video memory */
+		public final long gpu;
+
+		/** Estimated bytes of memory not in the GPU */
+		public final long cpu;
+
+		public Entry(String scene, String owner, String fileName, String type, long gpu, long cpu) {
+			this.scene = scene;
+			this.owner = owner;
+			this.fileName = fileName;
+			this.type = type;
+			this.gpu = gpu;
+			this.cpu = cpu;
+		}
+	}
+
+	private final ArrayList<Entry> entries = new ArrayList<Entry>();
+
+	/** Loaded scenes in report order */
+	private final ArrayList<String> scenes = new ArrayList<String>();
+
+	public AssetMemoryReport(World w) {
+		if (w.getCurrentScene() != null)
+			addScene(w.getCurrentScene());
+
+		for (Scene s : w.getSceneCache().getScenes())
+			addScene(s);
+
+		for (Scene s : w.getScenePrefetcher().getPrefetched())
+			addScene(s);
+	}
+
+	private void addScene(Scene s) {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+
+		scenes.add(s.getId());
+
+		for (Map.Entry<String, ArrayList<String>> o : s.getAssetOwners().entrySet()) {
+			for (String n : o.getValue())
+				addEntry(am, s.getId(), o.getKey(), n);
+		}
+
+		if (s.getMusicDesc() != null && s.getMusicDesc().getFilename() != null) {
+			String n = EngineAssetManager.MUSIC_DIR + s.getMusicDesc().getFilename();
+
+			if (am.isLoaded(n))
+				addEntry(am, s.getId(), MUSIC_OWNER, n);
+		}
+	}
+
+	private void addEntry(EngineAssetManager am, String scene, String owner, String fileName) {
+		if (!am.isLoaded(fileName))
+			return;
+
+		entries.add(new Entry(scene, owner, fileName, am.getAssetType(fileName).getSimpleName(),
+				am.getAssetGpuSize(fileName), am.getAssetCpuSize(fileName)));
+	}
+
+	public ArrayList<Entry> getEntries() {
+		return entries;
+	}
+
+	/** Ids of the scenes in the report. The first one is the current scene */
+	public ArrayList<String> getScenes() {
+		return scenes;
+	}
+
+	/**
+	 * Estimated video memory used by the scene. If sceneId is null, by all the
+	 * scenes in the report.
+	 */
+	public long getGpuSize(String sceneId) {
+		long size = 0;
+		HashSet<String> counted = new HashSet<String>();
+
+		for (Entry e : entries) {
+			if ((sceneId == null || sceneId.equals(e.scene)) && counted.add(e.fileName))
+				size += e.gpu;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimated memory, not in the GPU, used by the scene. If sceneId is null,
+	 * by all the scenes in the report.
+	 */
+	public long getCpuSize(String sceneId) {
+		long size = 0;
+		HashSet<String> counted = new HashSet<String>();
+
+		for (Entry e : entries) {
+			if ((sceneId == null || sceneId.equals(e.scene)) && counted.add(e.fileName))
+				size += e.cpu;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimated memory used by every owner of the scene, the biggest first.
+	 */
+	public LinkedHashMap<String, Long> getOwnerSizes(String sceneId) {
+		final LinkedHashMap<String, Long> sizes = new LinkedHashMap<String, Long>();
+
+		for (Entry e : entries) {
+			if (!sceneId.equals(e.scene))
+				continue;
+
+			Long old = sizes.get(e.owner);
+			sizes.put(e.owner, (old == null ? 0 : old) + e.gpu + e.cpu);
+		}
+
+		ArrayList<String> owners = new ArrayList<String>(sizes.keySet());
+
+		Collections.sort(owners, new Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				long d = sizes.get(b) - sizes.get(a);
+
+				return d > 0 ? 1 : d < 0 ? -1 : 0;
+			}
+		});
+
+		LinkedHashMap<String, Long> sorted = new LinkedHashMap<String, Long>();
+
+		for (String o : owners)
+			sorted.put(o, sizes.get(o));
+
+		return sorted;
+	}
+
+	/**
+	 * Writes the report as text.
+	 */
+	public void save(FileHandle file) {
+		file.writeString(toString(), false, "UTF-8");
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("TOTAL GPU: ").append(getGpuSize(null) / 1024).append(" KB, CPU: ")
+				.append(getCpuSize(null) / 1024).append(" KB\n");
+
+		for (String scene : scenes) {
+			sb.append("\nSCENE ").append(scene).append(" GPU: ").append(getGpuSize(scene) / 1024)
+					.append(" KB, CPU: ").append(getCpuSize(scene) / 1024).append(" KB\n");
+
+			for (String owner : getOwnerSizes(scene).keySet()) {
+				sb.append("\t").append(owner).append('\n');
+
+				for (Entry e : entries) {
+					if (!e.scene.equals(scene) || !e.owner.equals(owner))
+						continue;
+
+					sb.append("\t\t").append(e.fileName).append(" (").append(e.type).append(") GPU: ")
+							.append(e.gpu / 1024).append(" KB, CPU: ").append(e.cpu / 1024).append(" KB\n");
+				}
+			}
+		}
+
+		return sb.toString();
+	}
+}
@@ -32,6 +32,7 @@ import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.AnimationDesc;
 import com.bladecoder.engine.anim.AtlasAnimationDesc;
 import com.bladecoder.engine.anim.FATween;
+import com.bladecoder.engine.anim.PendingAnimation;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.util.EngineLogger;
@@ -58,6 +59,9 @@ public class AtlasRenderer implements ActorRenderer {
 	private final HashMap<String, AtlasCacheEntry> sourceCache = new HashMap<String, AtlasCacheEntry>();
 	private Polygon bbox;
 
+	/** Animation waiting for its atlas to be loaded */
+	private PendingAnimation pendingAnimation;
+
 	class AtlasCacheEntry {
 		int refCounter;
 	}
@@ -96,6 +100,9 @@ public class AtlasRenderer implements ActorRenderer {
 
 	@Override
 	public void update(float delta) {
+		if (pendingAnimation != null && pendingAnimation.isLoaded())
+			startPendingAnimation();
+
 		if (faTween != null) {
 			faTween.update(this, delta);
 			if (faTween.isComplete()) {
@@ -161,6 +168,10 @@ public class AtlasRenderer implements ActorRenderer {
 		return currentAnimation;
 	}
 
+	public int getCurrentFrameIndex() {
+		return currentFrameIndex;
+	}
+
 	@Override
 	public HashMap<String, AnimationDesc> getAnimations() {
 		return (HashMap<String, AnimationDesc>) fanims;
@@ -172,6 +183,9 @@ public class AtlasRenderer implements ActorRenderer {
 		if (id == null)
 			id = initAnimation;
 
+		pendingAnimation = null;
+
+		boolean prevFlipX = flipX;
 		AtlasAnimationDesc fa = getAnimation(id);
 
 		if (fa == null) {
@@ -180,6 +194,23 @@ public class AtlasRenderer implements ActorRenderer {
 			return;
 		}
 
+		// Load the atlas in background and keep the current frame until it is
+		// loaded
+		if (fa.regions == null && EngineAssetManager.getInstance().isAsyncLoading()
+				&& !EngineAssetManager.getInstance().isAtlasLoaded(fa.source)) {
+			AtlasCacheEntry entry = sourceCache.get(fa.source);
+
+			if (entry == null || entry.refCounter < 1)
+				loadSource(fa.source);
+
+			pendingAnimation = new PendingAnimation(id, repeatType, count, cb,
+					EngineAssetManager.ATLASES_DIR + fa.source + EngineAssetManager.ATLAS_EXT);
+			flipX = prevFlipX;
+			faTween = null;
+
+			return;
+		}
+
 		if (currentAnimation != null && currentAnimation.disposeWhenPlayed) {
 			disposeSource(currentAnimation.source);
 			currentAnimation.regions = null;
@@ -234,6 +265,13 @@ public class AtlasRenderer implements ActorRenderer {
 		computeBbox();
 	}
 
+	private void startPendingAnimation() {
+		PendingAnimation p = pendingAnimation;
+		pendingAnimation = null;
+
+		startAnimation(p.id, p.repeatType, p.count, p.cb);
+	}
+
 	public int getNumFrames() {
 		return currentAnimation.regions.size;
 	}
@@ -414,7 +452,10 @@ public class AtlasRenderer implements ActorRenderer {
 
 		if (entry == null || entry.refCounter < 1) {
 			loadSource(source);
-			EngineAssetManager.getInstance().finishLoading();
+
+			// only wait when the atlas is not loaded by other renderer
+			if (!EngineAssetManager.getInstance().isAtlasLoaded(source))
+				EngineAssetManager.getInstance().finishLoading();
 		}
 	}
 
@@ -484,11 +525,14 @@ public class AtlasRenderer implements ActorRenderer {
 
 	@Override
 	public void dispose() {
+		// release only the references taken by this renderer
 		for (String key : sourceCache.keySet()) {
-			EngineAssetManager.getInstance().disposeAtlas(key);
+			if (sourceCache.get(key).refCounter > 0)
+				EngineAssetManager.getInstance().disposeAtlas(key);
 		}
 
 		sourceCache.clear();
+		pendingAnimation = null;
 	}
 
 	@Override
@@ -500,6 +544,11 @@ public class AtlasRenderer implements ActorRenderer {
 
 		} else {
 
+			if (pendingAnimation != null) {
+				pendingAnimation.finishLoading();
+				startPendingAnimation();
+			}
+
 			String currentAnimationId = null;
 
 			if (currentAnimation != null)
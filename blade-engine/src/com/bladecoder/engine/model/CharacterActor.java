@@ -27,6 +27,11 @@ import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.anim.WalkTween;
+import com.bladecoder.engine.polygonalpathfinder.PathCache;
+import com.bladecoder.engine.polygonalpathfinder.PathQuery;
+import com.bladecoder.engine.polygonalpathfinder.PathSolver.PathListener;
+import com.bladecoder.engine.polygonalpathfinder.PathSolver.PathRequest;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.SerializationHelper;
 import com.bladecoder.engine.util.SerializationHelper.Mode;
@@ -48,6 +53,12 @@ public class CharacterActor extends SpriteActor {
 
 	private HashMap<String, Dialog> dialogs;
 
+	/** Scratch state for the walking path searches of this character */
+	private final PathQuery pathQuery = new PathQuery();
+
+	/** Path being solved by the World PathSolver */
+	private PathRequest pathRequest;
+
 	public Color getTextColor() {
 		return textColor;
 	}
@@ -100,6 +111,7 @@ public class CharacterActor extends SpriteActor {
 	}
 
 	public void lookat(Vector2 p) {
+		cancelPathRequest();
 		inAnim();
 		posTween = null;
 		renderer.startAnimation(standAnim, Tween.Type.SPRITE_DEFINED, -1, null, new Vector2(bbox.getX(), bbox.getY()),
@@ -108,6 +120,7 @@ public class CharacterActor extends SpriteActor {
 	}
 
 	public void lookat(String direction) {
+		cancelPathRequest();
 		inAnim();
 		posTween = null;
 		renderer.startAnimation(standAnim, Tween.Type.SPRITE_DEFINED, -1, null, direction);
@@ -115,6 +128,7 @@ public class CharacterActor extends SpriteActor {
 	}
 
 	public void stand() {
+		cancelPathRequest();
 		inAnim();
 		posTween = null;
 		renderer.startAnimation(standAnim, Tween.Type.SPRITE_DEFINED, -1, null, null);
@@ -122,6 +136,7 @@ public class CharacterActor extends SpriteActor {
 	}
 
 	public void talk() {
+		cancelPathRequest();
 		inAnim();
 		posTween = null;
 		renderer.startAnimation(talkAnim, Tween.Type.SPRITE_DEFINED, -1, null, null);
@@ -145,6 +160,8 @@ public class CharacterActor extends SpriteActor {
 	public void goTo(Vector2 pf, ActionCallback cb) {
 		EngineLogger.debug(MessageFormat.format("GOTO {0},{1}", pf.x, pf.y));
 
+		cancelPathRequest();
+
 		Vector2 p0 = new Vector2(bbox.getX(), bbox.getY());
 
 		ArrayList<Vector2> walkingPath = null;
@@ -160,10 +177,48 @@ public class CharacterActor extends SpriteActor {
 			return;
 		}
 
+		if (scene.getPolygonalNavGraph() != null && Config.getProperty(Config.PATHFINDER_ASYNC, false)) {
+			goToAsync(p0, pf, cb);
+
+			return;
+		}
+
 		if (scene.getPolygonalNavGraph() != null) {
-			walkingPath = scene.getPolygonalNavGraph().findPath(p0.x, p0.y, pf.x, pf.y);
+			pathQuery.setMaxExpandedNodes(Config.getProperty(Config.PATHFINDER_MAX_EXPANDED_NODES, 0));
+			walkingPath = scene.getPolygonalNavGraph().findPath(p0.x, p0.y, pf.x, pf.y, pathQuery);
+
+			if (EngineLogger.debugMode()) {
+				PathCache cache = scene.getPolygonalNavGraph().getPathCache();
+
+				EngineLogger.debug("PATH: expanded nodes: " + pathQuery.getExpandedNodes() + " open list peak: "
+						+ pathQuery.getOpenListPeak() + " cache hits/misses: " + cache.getHits() + "/"
+						+ cache.getMisses());
+			}
 		}
 
+		startWalk(walkingPath, cb);
+	}
+
+	/**
+	 * Solves the path in the World PathSolver. The walk starts in the next
+	 * frame after the path is found. The current walk is stopped, because the
+	 * path starts in the current position.
+	 */
+	private void goToAsync(Vector2 p0, Vector2 pf, final ActionCallback cb) {
+		if (posTween instanceof WalkTween)
+			stand();
+
+		pathRequest = World.getInstance().getPathSolver().solve(scene.getPolygonalNavGraph(), p0.x, p0.y, pf.x,
+				pf.y, Config.getProperty(Config.PATHFINDER_MAX_EXPANDED_NODES, 0), new PathListener() {
+					@Override
+					public void pathSolved(ArrayList<Vector2> path) {
+						pathRequest = null;
+						startWalk(path, cb);
+					}
+				});
+	}
+
+	private void startWalk(ArrayList<Vector2> walkingPath, ActionCallback cb) {
 		if (walkingPath == null || walkingPath.size() == 0) {
 			// call the callback even when the path is empty
 			if (cb != null)
@@ -176,6 +231,13 @@ public class CharacterActor extends SpriteActor {
 
 		((WalkTween) posTween).start(this, walkingPath, walkingSpeed, cb);
 	}
+
+	private void cancelPathRequest() {
+		if (pathRequest != null) {
+			pathRequest.cancel();
+			pathRequest = null;
+		}
+	}
 	
 	/**
 	 * If the character is walking, the character position is set to the final position and the walk is finish.
@@ -183,6 +245,10 @@ public class CharacterActor extends SpriteActor {
 	 * This is used to fast walk between scenes. Used when double clicking.
 	 */
 	public void fastWalk() {
+		// start the walk if the path is still being solved
+		if (pathRequest != null)
+			World.getInstance().getPathSolver().finish();
+
 		if(posTween != null && posTween instanceof WalkTween) {
 			WalkTween wt = (WalkTween)posTween;
 			
@@ -27,6 +27,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.AnimationDesc;
+import com.bladecoder.engine.anim.PendingAnimation;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
@@ -50,9 +51,15 @@ public class ImageRenderer implements ActorRenderer {
 	private final HashMap<String, ImageCacheEntry> sourceCache = new HashMap<String, ImageCacheEntry>();
 	private Polygon bbox;
 
+	/** Animation waiting for its image to be loaded */
+	private PendingAnimation pendingAnimation;
+
 	class ImageCacheEntry {
 		int refCounter;
 
+		/** The file loaded, resolved for the locale when it was loaded */
+		String fileName;
+
 		Texture tex;
 	}
 
@@ -77,6 +84,8 @@ public class ImageRenderer implements ActorRenderer {
 
 	@Override
 	public void update(float delta) {
+		if (pendingAnimation != null && pendingAnimation.isLoaded())
+			startPendingAnimation();
 	}
 
 	@Override
@@ -159,6 +168,9 @@ public class ImageRenderer implements ActorRenderer {
 
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb) {
+		pendingAnimation = null;
+
+		boolean prevFlipX = flipX;
 		AnimationDesc fa = getAnimation(id);
 
 		if (fa == null) {
@@ -167,6 +179,23 @@ public class ImageRenderer implements ActorRenderer {
 			return;
 		}
 
+		ImageCacheEntry entry = sourceCache.get(fa.source);
+		String fileName = entry != null && entry.refCounter > 0 ? entry.fileName : getFileName(fa.source);
+
+		// Load the image in background and keep the current image until it is
+		// loaded
+		if ((entry == null || entry.tex == null) && EngineAssetManager.getInstance().isAsyncLoading()
+				&& !EngineAssetManager.getInstance().isLoaded(fileName)) {
+
+			if (entry == null || entry.refCounter < 1)
+				loadSource(fa.source);
+
+			pendingAnimation = new PendingAnimation(id, repeatType, count, cb, fileName);
+			flipX = prevFlipX;
+
+			return;
+		}
+
 		if (cb != null)
 			ActionCallbackQueue.add(cb);
 
@@ -177,10 +206,7 @@ public class ImageRenderer implements ActorRenderer {
 		currentSource = sourceCache.get(fa.source);
 
 		// If the source is not loaded. Load it.
-		if (currentSource == null || currentSource.refCounter < 1) {
-			loadSource(fa.source);
-			EngineAssetManager.getInstance().finishLoading();
-
+		if (currentSource == null || currentSource.refCounter < 1 || currentSource.tex == null) {
 			retrieveSource(fa.source);
 
 			currentSource = sourceCache.get(fa.source);
@@ -321,6 +347,21 @@ public class ImageRenderer implements ActorRenderer {
 		startAnimation(id, repeatType, count, cb, AnimationDesc.getDirectionString(p0, pf, AnimationDesc.getDirs(id, fanims)));
 	}
 
+	private void startPendingAnimation() {
+		PendingAnimation p = pendingAnimation;
+		pendingAnimation = null;
+
+		startAnimation(p.id, p.repeatType, p.count, p.cb);
+	}
+
+	private String getFileName(String source) {
+		// I18N for images
+		if (source.charAt(0) == I18N.PREFIX)
+			source = I18N.getString(source.substring(1));
+
+		return EngineAssetManager.IMAGE_DIR + source;
+	}
+
 	private void loadSource(String source) {
 		ImageCacheEntry entry = sourceCache.get(source);
 
@@ -330,10 +371,8 @@ public class ImageRenderer implements ActorRenderer {
 		}
 
 		if (entry.refCounter == 0) {
-			// I18N for images
-			if (source.charAt(0) == I18N.PREFIX)
-				source = I18N.getString(source.substring(1));
-			EngineAssetManager.getInstance().loadTexture(EngineAssetManager.IMAGE_DIR + source);
+			entry.fileName = getFileName(source);
+			EngineAssetManager.getInstance().loadTexture(entry.fileName);
 		}
 
 		entry.refCounter++;
@@ -344,16 +383,17 @@ public class ImageRenderer implements ActorRenderer {
 
 		if (entry == null || entry.refCounter < 1) {
 			loadSource(source);
-			EngineAssetManager.getInstance().finishLoading();
 			entry = sourceCache.get(source);
 		}
 
 		if (entry.tex == null) {
-			// I18N for images
-			if (source.charAt(0) == I18N.PREFIX)
-				source = I18N.getString(source.substring(1));
+			String filename = entry.fileName;
+
+			// only wait when the image is not loaded yet
+			if (!EngineAssetManager.getInstance().isLoaded(filename))
+				EngineAssetManager.getInstance().finishLoading();
 
-			entry.tex = EngineAssetManager.getInstance().getTexture(EngineAssetManager.IMAGE_DIR + source);
+			entry.tex = EngineAssetManager.getInstance().getTexture(filename);
 		}
 	}
 
@@ -361,7 +401,7 @@ public class ImageRenderer implements ActorRenderer {
 		ImageCacheEntry entry = sourceCache.get(source);
 
 		if (entry.refCounter == 1) {
-			EngineAssetManager.getInstance().disposeTexture(entry.tex);
+			EngineAssetManager.getInstance().disposeTexture(entry.fileName);
 			entry.tex = null;
 		}
 
@@ -405,12 +445,15 @@ public class ImageRenderer implements ActorRenderer {
 
 	@Override
 	public void dispose() {
+		// release only the references taken by this renderer
 		for (ImageCacheEntry entry : sourceCache.values()) {
-			EngineAssetManager.getInstance().disposeTexture(entry.tex);
+			if (entry.refCounter > 0)
+				EngineAssetManager.getInstance().disposeTexture(entry.fileName);
 		}
 
 		sourceCache.clear();
 		currentSource = null;
+		pendingAnimation = null;
 	}
 
 	@Override
@@ -423,6 +466,11 @@ public class ImageRenderer implements ActorRenderer {
 
 		} else {
 
+			if (pendingAnimation != null) {
+				pendingAnimation.finishLoading();
+				startPendingAnimation();
+			}
+
 			String currentAnimationId = null;
 
 			if (currentAnimation != null)
@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.bladecoder.engine.anim.AnimationDesc;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * The actors of a prerendered layer drawn into a frame buffer, so the layer is
+ * drawn as a single quad.
+ *
+ * The frame buffer covers all the area that the layer shows while the camera
+ * scrolls, so it depends on the layer parallax and the scene and viewport
+ * sizes. It is rendered again when any actor changes its visibility,
+ * position, scale, tint, animation or frame.
+ *
+ * While the actors are changing, or while assets are loading, the layer is
+ * drawn as usual. The frame buffer is only rendered once the layer has been
+ * still for a frame, so animated layers don't render it every frame.
+ */
+public class LayerCache {
+	private static int maxTextureSize;
+	private static final IntBuffer intBuf = BufferUtils.newIntBuffer(16);
+
+	private FrameBuffer fbo;
+	private TextureRegion region;
+	private boolean valid;
+	private boolean tooBig;
+
+	/** The frame buffer can be drawn in this frame */
+	private boolean ready;
+
+	/** World area of the frame buffer */
+	private final Rectangle bounds = new Rectangle();
+
+	/** State of every actor when last checked */
+	private final ArrayList<ActorState> states = new ArrayList<ActorState>();
+
+	private final Matrix4 fboMatrix = new Matrix4();
+	private final Matrix4 tmpMatrix = new Matrix4();
+	private final int[] viewport = new int[4];
+
+	private static class ActorState {
+		InteractiveActor actor;
+		boolean visible;
+		float x, y, scale, tint;
+		AnimationDesc animation;
+		int frame;
+
+		/**
+		 * Stores the actor state.
+		 *
+		 * @return true if it changed.
+		 */
+		boolean update(SpriteActor a) {
+			ActorRenderer r = a.getRenderer();
+			AnimationDesc anim = r.getCurrentAnimation();
+			int f = r instanceof AtlasRenderer ? ((AtlasRenderer) r).getCurrentFrameIndex() : 0;
+			Color c = a.getTint();
+			float t = c == null ? 0 : c.toFloatBits();
+
+			boolean changed = actor != a || visible != a.isVisible() || x != a.getX() || y != a.getY()
+					|| scale != a.getScale() || tint != t || animation != anim || frame != f;
+
+			actor = a;
+			visible = a.isVisible();
+			x = a.getX();
+			y = a.getY();
+			scale = a.getScale();
+			tint = t;
+			animation = anim;
+			frame = f;
+
+			return changed;
+		}
+	}
+
+	/**
+	 * Checks the actors and renders the frame buffer if they didn't change
+	 * since the last frame. Called before the scene batch begins.
+	 */
+	public void prepare(SpriteBatch batch, List<InteractiveActor> actors, float parallax, SceneCamera camera) {
+		ready = false;
+
+		if (updateStates(actors) || EngineAssetManager.getInstance().getQueuedAssets() > 0) {
+			valid = false;
+			return;
+		}
+
+		float sw = camera.getScrollingWidth();
+		float vw = camera.getWidth();
+		float x = (sw - vw) * (1 - parallax) / 2;
+		int w = MathUtils.ceil(vw + (sw - vw) * parallax);
+		int h = MathUtils.ceil(camera.getScrollingHeight());
+
+		if (w <= 0 || h <= 0)
+			return;
+
+		if (fbo == null || fbo.getWidth() != w || fbo.getHeight() != h || bounds.x != x) {
+			dispose();
+
+			if (w > getMaxTextureSize() || h > getMaxTextureSize()) {
+				if (!tooBig)
+					EngineLogger.debug("PRERENDERED LAYER BIGGER THAN THE MAX. TEXTURE SIZE: " + w + "x" + h);
+
+				tooBig = true;
+				return;
+			}
+
+			tooBig = false;
+			bounds.set(x, 0, w, h);
+
+			fbo = new FrameBuffer(Format.RGBA8888, w, h, false);
+			fbo.getColorBufferTexture().setFilter(TextureFilter.Linear, TextureFilter.Linear);
+
+			// the frame buffer texture is upside down
+			region = new TextureRegion(fbo.getColorBufferTexture());
+			region.flip(false, true);
+		}
+
+		if (!valid) {
+			render(batch, actors);
+			valid = true;
+		}
+
+		ready = true;
+	}
+
+	/**
+	 * Draws the layer from the frame buffer. The batch must be drawing with the
+	 * layer parallax matrix.
+	 *
+	 * @param view
+	 *            The visible area for the layer parallax.
+	 * @return false if the layer can not be drawn from the frame buffer in this
+	 *         frame and it must be drawn as usual.
+	 */
+	public boolean draw(SpriteBatch batch, Rectangle view) {
+		// zoomed out or out of the scroll limits
+		if (!ready || !bounds.contains(view))
+			return false;
+
+		// the frame buffer has premultiplied alpha
+		batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		batch.draw(region, bounds.x, bounds.y, bounds.width, bounds.height);
+		batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+		return true;
+	}
+
+	/**
+	 * Stores the state of the actors.
+	 *
+	 * @return true if any actor changed or can not be prerendered.
+	 */
+	private boolean updateStates(List<InteractiveActor> actors) {
+		boolean changed = false;
+
+		while (states.size() > actors.size())
+			states.remove(states.size() - 1);
+
+		while (states.size() < actors.size())
+			states.add(new ActorState());
+
+		for (int i = 0; i < actors.size(); i++) {
+			InteractiveActor a = actors.get(i);
+
+			if (!(a instanceof SpriteActor))
+				continue;
+
+			ActorRenderer r = ((SpriteActor) a).getRenderer();
+
+			// 3d and spine animations change every frame
+			if (!(r instanceof AtlasRenderer || r instanceof ImageRenderer))
+				changed = true;
+			else if (states.get(i).update((SpriteActor) a))
+				changed = true;
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Draws all the actors in the frame buffer. The batch must not be drawing.
+	 * The bound frame buffer, that is not the screen when taking screenshots,
+	 * and the viewport are restored.
+	 */
+	private void render(SpriteBatch batch, List<InteractiveActor> actors) {
+		tmpMatrix.set(batch.getProjectionMatrix());
+
+		intBuf.clear();
+		Gdx.gl.glGetIntegerv(GL20.GL_FRAMEBUFFER_BINDING, intBuf);
+		int prevFramebuffer = intBuf.get(0);
+
+		intBuf.clear();
+		Gdx.gl.glGetIntegerv(GL20.GL_VIEWPORT, intBuf);
+		intBuf.get(viewport);
+
+		fbo.begin();
+
+		Gdx.gl.glClearColor(0, 0, 0, 0);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+		// the color is multiplied by the alpha and the alpha is accumulated
+		batch.setBlendFunction(-1, -1);
+		Gdx.gl.glBlendFuncSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE,
+				GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+		batch.setProjectionMatrix(fboMatrix.setToOrtho2D(bounds.x, bounds.y, bounds.width, bounds.height));
+		batch.begin();
+
+		for (InteractiveActor a : actors) {
+			if (a instanceof SpriteActor && a.isVisible())
+				((SpriteActor) a).draw(batch);
+		}
+
+		batch.end();
+
+		Gdx.gl.glBindFramebuffer(GL20.GL_FRAMEBUFFER, prevFramebuffer);
+		Gdx.gl.glViewport(viewport[0], viewport[1], viewport[2], viewport[3]);
+
+		batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		batch.setProjectionMatrix(tmpMatrix);
+
+		EngineLogger.debug("PRERENDERED LAYER: " + fbo.getWidth() + "x" + fbo.getHeight());
+	}
+
+	/** Renders the frame buffer again in the next draw */
+	public void invalidate() {
+		valid = false;
+	}
+
+	public void dispose() {
+		if (fbo != null) {
+			fbo.dispose();
+			fbo = null;
+			region = null;
+		}
+
+		valid = false;
+		ready = false;
+	}
+
+	private static int getMaxTextureSize() {
+		if (maxTextureSize == 0) {
+			intBuf.clear();
+			Gdx.gl.glGetIntegerv(GL20.GL_MAX_TEXTURE_SIZE, intBuf);
+			maxTextureSize = intBuf.get(0);
+		}
+
+		return maxTextureSize;
+	}
+}
@@ -26,6 +26,9 @@ public class MusicEngine implements Serializable, AssetConsumer {
 	private float musicPosSer = 0;
 	transient private boolean isPaused = false;
 
+	/** True when the music file is loaded or queued in the asset manager */
+	transient private boolean assetRequested = false;
+
 	public void playMusic() {
 		if (music != null && !music.isPlaying()) {
 			music.play();
@@ -89,6 +92,11 @@ public class MusicEngine implements Serializable, AssetConsumer {
 	}
 
 	public void update(float delta) {
+		// the music was loading in background
+		if (music == null && desc != null && assetRequested
+				&& EngineAssetManager.getInstance().isLoaded(EngineAssetManager.MUSIC_DIR + desc.getFilename()))
+			retrieveAssets();
+
 		// music delay update
 		if (music != null && !music.isPlaying()) {
 			boolean initialTime = false;
@@ -112,9 +120,10 @@ public class MusicEngine implements Serializable, AssetConsumer {
 
 	@Override
 	public void dispose() {
-		if (music != null) {
+		if (assetRequested) {
 			EngineLogger.debug("DISPOSING MUSIC: " + desc.getFilename());
 			EngineAssetManager.getInstance().disposeMusic(desc.getFilename());
+			assetRequested = false;
 			music = null;
 			desc = null;
 		}
@@ -122,18 +131,23 @@ public class MusicEngine implements Serializable, AssetConsumer {
 
 	@Override
 	public void loadAssets() {
-		if (music == null && desc != null) {
+		if (music == null && desc != null && !assetRequested) {
 			EngineLogger.debug("LOADING MUSIC: " + desc.getFilename());
 			EngineAssetManager.getInstance().loadMusic(desc.getFilename());
+			assetRequested = true;
 		}
 	}
 
 	@Override
 	public void retrieveAssets() {
 		if (music == null && desc != null) {
+			loadAssets();
 			
-			if(!EngineAssetManager.getInstance().isLoaded(desc.getFilename())) {
-				loadAssets();
+			if(!EngineAssetManager.getInstance().isLoaded(EngineAssetManager.MUSIC_DIR + desc.getFilename())) {
+				// retrieved in update() when loaded
+				if (EngineAssetManager.getInstance().isAsyncLoading())
+					return;
+				
 				EngineAssetManager.getInstance().finishLoading();
 			}
 			
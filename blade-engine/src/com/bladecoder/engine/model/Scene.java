@@ -17,6 +17,7 @@ package com.bladecoder.engine.model;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import com.badlogic.gdx.graphics.Color;
@@ -34,8 +35,10 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.SceneActorRef;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.polygonalpathfinder.NavMesh;
 import com.bladecoder.engine.polygonalpathfinder.NavNodePolygonal;
 import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.SerializationHelper;
 import com.bladecoder.engine.util.SerializationHelper.Mode;
@@ -63,6 +66,13 @@ public class Scene implements Serializable, AssetConsumer {
 	private SceneCamera camera = new SceneCamera();
 
 	private Array<AtlasRegion> background;
+
+	/** Visible area of the layer being drawn, to cull tiles and actors */
+	private final Rectangle viewRect = new Rectangle();
+	private final Rectangle tmpRect = new Rectangle();
+
+	/** Stats of the last draw */
+	private int drawnTiles, culledTiles, drawnActors, culledActors;
 	private String backgroundAtlas;
 	private String backgroundRegionId;
 
@@ -94,6 +104,30 @@ public class Scene implements Serializable, AssetConsumer {
 
 	private VerbManager verbs = new VerbManager();
 
+	/** Owner of the assets loaded for the scene background */
+	public static final String BACKGROUND_OWNER = "<background>";
+
+	/** File names of the assets loaded in loadAssets() */
+	private final ArrayList<String> assetNames = new ArrayList<String>();
+
+	/**
+	 * File names of the assets loaded in loadAssets() by every actor. The
+	 * background assets are in BACKGROUND_OWNER.
+	 */
+	private final LinkedHashMap<String, ArrayList<String>> assetOwners = new LinkedHashMap<String, ArrayList<String>>();
+
+	/** The background atlas referenced in loadAssets() and released in dispose() */
+	private String loadedBackgroundAtlas;
+
+	/** The assets baked by the editor, the biggest first. Can be null */
+	private ArrayList<AssetManifest.Entry> assetManifest;
+
+	/** True from loadAssets() until the assets are retrieved or disposed */
+	private boolean manifestLoaded;
+
+	/** True from queueAssets() until createNavGraph() */
+	private boolean navGraphPending;
+
 	public Scene() {
 	}
 
@@ -176,33 +210,80 @@ public class Scene implements Serializable, AssetConsumer {
 		}
 	}
 
+	/**
+	 * Draws the background and the layers in a single batch pass. The
+	 * projection only changes, flushing the batch, when the parallax of the
+	 * next visible layer is different.
+	 */
 	public void draw(SpriteBatch batch) {
+		drawnTiles = culledTiles = drawnActors = culledActors = 0;
+
+		// the frame buffers are rendered before the scene pass
+		for (SceneLayer layer : layers) {
+			if (layer.isVisible() && layer.isPrerendered())
+				layer.prerender(batch, camera);
+		}
+
+		float parallax = 1;
+
+		batch.setProjectionMatrix(camera.calculateParallaxMatrix(parallax, 1));
+		camera.getParallaxViewRect(parallax, 1, viewRect);
+		batch.begin();
 
 		if (background != null) {
 			batch.disableBlending();
-			batch.setProjectionMatrix(camera.calculateParallaxMatrix(1, 1));
-			batch.begin();
 
 			float x = 0;
 
 			for (AtlasRegion tile : background) {
-				batch.draw(tile, x, 0f);
+				if (viewRect.overlaps(tmpRect.set(x, 0, tile.getRegionWidth(), tile.getRegionHeight()))) {
+					batch.draw(tile, x, 0f);
+					drawnTiles++;
+				} else {
+					culledTiles++;
+				}
+
 				x += tile.getRegionWidth();
 			}
-			
-			batch.end();
+
 			batch.enableBlending();
 		}
 
 		// draw layers from bottom to top
 		for (int i = layers.size() - 1; i >= 0; i--) {
 			SceneLayer layer = layers.get(i);
-			
-			batch.setProjectionMatrix(camera.calculateParallaxMatrix(layer.getParallaxMultiplier(), 1));
-			batch.begin();
-			layer.draw(batch);
-			batch.end();
+
+			if (layer.isVisible() && layer.getParallaxMultiplier() != parallax) {
+				parallax = layer.getParallaxMultiplier();
+
+				batch.setProjectionMatrix(camera.calculateParallaxMatrix(parallax, 1));
+				camera.getParallaxViewRect(parallax, 1, viewRect);
+			}
+
+			if (!layer.isPrerendered() || !layer.drawPrerendered(batch, viewRect))
+				layer.draw(batch, viewRect);
+
+			drawnActors += layer.getDrawn();
+			culledActors += layer.getCulled();
 		}
+
+		batch.end();
+	}
+
+	public int getDrawnTiles() {
+		return drawnTiles;
+	}
+
+	public int getCulledTiles() {
+		return culledTiles;
+	}
+
+	public int getDrawnActors() {
+		return drawnActors;
+	}
+
+	public int getCulledActors() {
+		return culledActors;
 	}
 
 	public void drawBBoxLines(ShapeRenderer renderer) {
@@ -244,6 +325,19 @@ public class Scene implements Serializable, AssetConsumer {
 					renderer.line(n.x, n.y, n2.x, n2.y);
 				}
 			}
+
+			// DRAW NAVMESH TRIANGLES
+			NavMesh navMesh = polygonalNavGraph.getNavMesh();
+
+			if (navMesh != null) {
+				float[] verts = navMesh.getVertices();
+				int[] tris = navMesh.getTriangles();
+
+				for (int i = 0; i < tris.length; i += 3) {
+					renderer.triangle(verts[tris[i] * 2], verts[tris[i] * 2 + 1], verts[tris[i + 1] * 2],
+							verts[tris[i + 1] * 2 + 1], verts[tris[i + 2] * 2], verts[tris[i + 2] * 2 + 1]);
+				}
+			}
 		}
 
 		renderer.end();
@@ -497,24 +591,112 @@ public class Scene implements Serializable, AssetConsumer {
 
 	@Override
 	public void loadAssets() {
+		queueAssets();
+		createNavGraph();
+	}
 
-		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
-			EngineAssetManager.getInstance().loadAtlas(backgroundAtlas);
+	/**
+	 * Queues the assets of the scene and its actors. The walk graph is not
+	 * created, it is created with createNavGraph() when the scene is entered.
+	 * Used to prefetch the scene.
+	 */
+	public void queueAssets() {
+		assetNames.clear();
+		assetOwners.clear();
+
+		EngineAssetManager am = EngineAssetManager.getInstance();
+
+		// queue all the baked assets at once, the biggest first. The actors
+		// only add references to the queued assets.
+		if (assetManifest != null && !manifestLoaded) {
+			for (AssetManifest.Entry e : assetManifest) {
+				if (e.isSupported())
+					am.acquire(e.fileName, e.getAssetClass());
+			}
+
+			manifestLoaded = true;
 		}
 
-		for (BaseActor a : actors.values()) {
-			if (a instanceof AssetConsumer)
-				((AssetConsumer) a).loadAssets();
+		try {
+			if (backgroundAtlas != null && !backgroundAtlas.isEmpty() && loadedBackgroundAtlas == null) {
+				am.startRecording(getOwnerAssets(BACKGROUND_OWNER));
+				am.loadAtlas(backgroundAtlas);
+				loadedBackgroundAtlas = backgroundAtlas;
+			}
+
+			for (BaseActor a : actors.values()) {
+				if (a instanceof AssetConsumer) {
+					am.startRecording(getOwnerAssets(a.getId()));
+					((AssetConsumer) a).loadAssets();
+				}
+			}
+		} finally {
+			am.stopRecording();
 		}
 
+		for (ArrayList<String> names : assetOwners.values()) {
+			for (String n : names)
+				if (!assetNames.contains(n))
+					assetNames.add(n);
+		}
+
+		navGraphPending = true;
+	}
+
+	/**
+	 * Creates the walk graph from the obstacles in the scene.
+	 */
+	public void createNavGraph() {
+		navGraphPending = false;
+
 		// CALC WALK GRAPH
 		if (polygonalNavGraph != null) {
+			polygonalNavGraph.getPathCache().setMaxEntries(Config.getProperty(Config.PATHFINDER_CACHE_SIZE, 0));
 			polygonalNavGraph.createInitialGraph(actors.values());
 		}
 	}
 
+	/** True when the assets were queued but the walk graph is not created */
+	public boolean isNavGraphPending() {
+		return navGraphPending;
+	}
+
 	@Override
 	public void retrieveAssets() {
+		retrieveBackground();
+
+		// RETRIEVE ACTORS
+		for (BaseActor a : actors.values()) {
+			if (a instanceof AssetConsumer)
+				((AssetConsumer) a).retrieveAssets();
+		}
+
+		// the actors hold their own references now
+		releaseManifest();
+	}
+
+	/**
+	 * Releases the references taken to queue the manifest assets. The assets
+	 * not used by the actors in the current state are unloaded. Called when
+	 * the actors assets are retrieved.
+	 */
+	void releaseManifest() {
+		if (!manifestLoaded)
+			return;
+
+		for (AssetManifest.Entry e : assetManifest) {
+			if (e.isSupported())
+				EngineAssetManager.getInstance().release(e.fileName);
+		}
+
+		manifestLoaded = false;
+	}
+
+	/**
+	 * Retrieves the background and sets the camera scrolling dimensions. The
+	 * actors assets are not retrieved.
+	 */
+	public void retrieveBackground() {
 
 		// RETRIEVE BACKGROUND
 		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
@@ -539,29 +721,81 @@ public class Scene implements Serializable, AssetConsumer {
 		
 		if(sceneSize != null)
 			camera.setScrollingDimensions(sceneSize.x, sceneSize.y);
-
-		// RETRIEVE ACTORS
-		for (BaseActor a : actors.values()) {
-			if (a instanceof AssetConsumer)
-				((AssetConsumer) a).retrieveAssets();
-		}
 	}
 
 	@Override
 	public void dispose() {
 
-		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
-			EngineAssetManager.getInstance().disposeAtlas(backgroundAtlas);
+		if (loadedBackgroundAtlas != null) {
+			EngineAssetManager.getInstance().disposeAtlas(loadedBackgroundAtlas);
+			loadedBackgroundAtlas = null;
 		}
 
+		// disposed before retrieving the assets
+		releaseManifest();
+
 		// orderedActors.clear();
 
+		for (SceneLayer layer : layers)
+			layer.disposeCache();
+
 		for (BaseActor a : actors.values()) {
 			if (a instanceof AssetConsumer)
 				((AssetConsumer) a).dispose();
 		}
 	}
 
+	/**
+	 * File names of the assets loaded by the scene and its actors.
+	 */
+	public ArrayList<String> getAssetNames() {
+		return assetNames;
+	}
+
+	/**
+	 * File names of the assets loaded by every actor of the scene. The assets
+	 * of the background are in BACKGROUND_OWNER.
+	 */
+	public LinkedHashMap<String, ArrayList<String>> getAssetOwners() {
+		return assetOwners;
+	}
+
+	private ArrayList<String> getOwnerAssets(String owner) {
+		ArrayList<String> names = assetOwners.get(owner);
+
+		if (names == null) {
+			names = new ArrayList<String>();
+			assetOwners.put(owner, names);
+		}
+
+		return names;
+	}
+
+	public ArrayList<AssetManifest.Entry> getAssetManifest() {
+		return assetManifest;
+	}
+
+	/**
+	 * Sets the assets baked by the editor for the scene. Must be set before
+	 * loading the scene assets.
+	 */
+	public void setAssetManifest(ArrayList<AssetManifest.Entry> assetManifest) {
+		this.assetManifest = assetManifest;
+	}
+
+	/**
+	 * Estimated bytes of texture and audio data used by the assets loaded by
+	 * the scene.
+	 */
+	public long getAssetsSize() {
+		long size = 0;
+
+		for (String name : assetNames)
+			size += EngineAssetManager.getInstance().getAssetSize(name);
+
+		return size;
+	}
+
 	public Vector2 getSceneSize() {
 		return sceneSize;
 	}
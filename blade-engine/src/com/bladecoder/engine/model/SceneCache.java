@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * LRU cache of the scenes left by the player. The assets of the cached scenes
+ * are not disposed so returning to them doesn't need to load the assets
+ * again.
+ *
+ * The least recently left scenes are disposed when the estimated memory used
+ * by the assets of the cached scenes is bigger than the budget. The assets
+ * shared by several cached scenes are counted once. The assets shared with the
+ * current scene are counted too, although disposing the cached scene doesn't
+ * free them. The last scene left is always cached, so a budget of 0 caches
+ * only one scene.
+ */
+public class SceneCache {
+	private final long budget;
+
+	/** Ordered from the least to the most recently cached */
+	private final LinkedHashMap<String, Scene> scenes = new LinkedHashMap<String, Scene>();
+
+	/** Estimated bytes used by the cached scenes */
+	private long size;
+
+	private int hits;
+	private int misses;
+	private int evictions;
+
+	/**
+	 * @param budget
+	 *            Max. bytes of texture and audio data retained by the cached
+	 *            scenes.
+	 */
+	public SceneCache(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Returns the scene if it is cached. Doesn't change the cache.
+	 */
+	public Scene get(String id) {
+		return scenes.get(id);
+	}
+
+	/**
+	 * Takes the scene out of the cache when the player enters it.
+	 *
+	 * @return true if the scene was cached and its assets are loaded.
+	 */
+	public boolean remove(Scene scene) {
+		if (scenes.get(scene.getId()) != scene) {
+			misses++;
+			return false;
+		}
+
+		scenes.remove(scene.getId());
+		size = computeSize();
+		hits++;
+
+		return true;
+	}
+
+	/**
+	 * Adds the scene left by the player. The oldest scenes are disposed until
+	 * the cache fits in the budget.
+	 * 
+	 * The prerendered layers frame buffers are disposed, they are not counted
+	 * in the budget and are rendered again when the scene is drawn.
+	 */
+	public void put(Scene scene) {
+		Scene old = scenes.remove(scene.getId());
+
+		if (old != null && old != scene)
+			old.dispose();
+
+		for (SceneLayer l : scene.getLayers())
+			l.disposeCache();
+
+		scenes.put(scene.getId(), scene);
+		size = computeSize();
+
+		Iterator<Map.Entry<String, Scene>> it = scenes.entrySet().iterator();
+
+		while (size > budget && scenes.size() > 1) {
+			Map.Entry<String, Scene> eldest = it.next();
+
+			EngineLogger.debug("SCENE CACHE: Disposing " + eldest.getKey());
+
+			eldest.getValue().dispose();
+			it.remove();
+			size = computeSize();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Estimated bytes used by the assets of the cached scenes. Every asset is
+	 * counted once, although it is used by several scenes.
+	 */
+	private long computeSize() {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+		HashSet<String> counted = new HashSet<String>();
+		long s = 0;
+
+		for (Scene scene : scenes.values()) {
+			for (String name : scene.getAssetNames()) {
+				if (counted.add(name))
+					s += am.getAssetSize(name);
+			}
+		}
+
+		return s;
+	}
+
+	/**
+	 * Disposes all the cached scenes.
+	 */
+	public void clear() {
+		for (Scene s : scenes.values())
+			s.dispose();
+
+		scenes.clear();
+		size = 0;
+	}
+
+	/** The cached scenes, from the least to the most recently cached */
+	public Collection<Scene> getScenes() {
+		return scenes.values();
+	}
+
+	public int getNumScenes() {
+		return scenes.size();
+	}
+
+	/** Estimated bytes used by the cached scenes */
+	public long getSize() {
+		return size;
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public int getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public String toString() {
+		return scenes.size() + " scenes, " + size / 1024 + "/" + budget / 1024 + " KB, hits: " + hits + ", misses: "
+				+ misses + ", evictions: " + evictions;
+	}
+}
@@ -19,11 +19,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.LongMap;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.anim.CameraTween;
@@ -46,9 +48,22 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 	private CameraTween cameraTween;
 	
 	private Matrix4 parallaxView = new Matrix4();
-	private Matrix4 parallaxCombined = new Matrix4();
 	private Vector3 tmp = new Vector3();
 	private Vector3 tmp2 = new Vector3();
+
+	/** Parallax matrices by parallax factors, valid while the stamp matches */
+	private final LongMap<ParallaxMatrix> parallaxCache = new LongMap<ParallaxMatrix>();
+	private int parallaxStamp;
+
+	/** Camera state when the cached matrices were calculated */
+	private boolean parallaxCacheValid = false;
+	private final Vector3 cachedPosition = new Vector3();
+	private float cachedZoom, cachedViewportWidth, cachedViewportHeight, cachedScrollingWidth;
+
+	private static class ParallaxMatrix {
+		final Matrix4 matrix = new Matrix4();
+		int stamp = -1;
+	}
 	
 	public SceneCamera() {
 	}
@@ -179,8 +194,35 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		project(out, 0, 0, viewport.getScreenWidth(), viewport.getScreenHeight());
 	}
 	
+	/**
+	 * The combined matrix for a layer with the parallax factors. The matrices
+	 * are cached until the camera moves, zooms or is resized. The returned
+	 * matrix must not be modified.
+	 */
 	public Matrix4 calculateParallaxMatrix (float parallaxX, float parallaxY) {
-		update();
+		if (!isParallaxCacheValid()) {
+			update();
+
+			parallaxCacheValid = true;
+			cachedPosition.set(position);
+			cachedZoom = zoom;
+			cachedViewportWidth = viewportWidth;
+			cachedViewportHeight = viewportHeight;
+			cachedScrollingWidth = scrollingWidth;
+			parallaxStamp++;
+		}
+
+		long key = ((long) Float.floatToIntBits(parallaxX) << 32) | (Float.floatToIntBits(parallaxY) & 0xffffffffL);
+		ParallaxMatrix pm = parallaxCache.get(key);
+
+		if (pm == null) {
+			pm = new ParallaxMatrix();
+			parallaxCache.put(key, pm);
+		}
+
+		if (pm.stamp == parallaxStamp)
+			return pm.matrix;
+
 		tmp.set(position);
 //		tmp.x *= parallaxX;
 		tmp.y *= parallaxY;
@@ -188,9 +230,30 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		tmp.x = (tmp.x - scrollingWidth / 2) * parallaxX + scrollingWidth / 2; 
 
 		parallaxView.setToLookAt(tmp, tmp2.set(tmp).add(direction), up);
-		parallaxCombined.set(projection);
-		Matrix4.mul(parallaxCombined.val, parallaxView.val);
-		return parallaxCombined;
+		pm.matrix.set(projection);
+		Matrix4.mul(pm.matrix.val, parallaxView.val);
+		pm.stamp = parallaxStamp;
+
+		return pm.matrix;
+	}
+
+	private boolean isParallaxCacheValid() {
+		return parallaxCacheValid && cachedPosition.equals(position) && cachedZoom == zoom
+				&& cachedViewportWidth == viewportWidth && cachedViewportHeight == viewportHeight
+				&& cachedScrollingWidth == scrollingWidth;
+	}
+
+	/**
+	 * The visible area, in world coordinates, of a layer drawn with the
+	 * calculateParallaxMatrix() matrix.
+	 */
+	public Rectangle getParallaxViewRect(float parallaxX, float parallaxY, Rectangle out) {
+		float x = (position.x - scrollingWidth / 2) * parallaxX + scrollingWidth / 2;
+		float y = position.y * parallaxY;
+		float w = viewportWidth * zoom;
+		float h = viewportHeight * zoom;
+
+		return out.set(x - w / 2, y - h / 2, w, h);
 	}
 	
 	@Override
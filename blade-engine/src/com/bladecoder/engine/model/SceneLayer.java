@@ -6,32 +6,168 @@ import java.util.Comparator;
 import java.util.List;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 
 public class SceneLayer {
 	private String name;
 	private boolean visible = true;
 	private boolean dynamic;
 	private float parallax = 1.0f;
+	private boolean prerendered;
 	
 	transient private final List<InteractiveActor> actors = new ArrayList<InteractiveActor>();
+
+	/** BBox 'y' of every actor in the last update, the dynamic sort key */
+	transient private float[] sortKeys = new float[0];
+	transient private boolean sortDirty = true;
+
+	/** Actors drawn and culled in the last draw */
+	transient private int drawn, culled;
+	transient private final Rectangle tmpRect = new Rectangle();
+
+	transient private LayerCache cache;
 	
+	/**
+	 * Sorts the actors of dynamic layers by their 'y' position. The actors are
+	 * only sorted when they are added or removed or an actor moves. The actors
+	 * are usually almost sorted, so the insertion sort is O(n).
+	 */
 	public void update() {
-		if(dynamic && visible)
-			Collections.sort(actors);
+		if(!dynamic || !visible)
+			return;
+
+		int n = actors.size();
+
+		if (sortKeys.length != n) {
+			sortKeys = new float[n];
+			sortDirty = true;
+		}
+
+		for (int i = 0; i < n; i++) {
+			float y = actors.get(i).getBBox().getY();
+
+			if (y != sortKeys[i]) {
+				sortKeys[i] = y;
+				sortDirty = true;
+			}
+		}
+
+		if (sortDirty) {
+			sortByKeys();
+			sortDirty = false;
+		}
+	}
+
+	/**
+	 * Stable insertion sort with the same order than
+	 * InteractiveActor.compareTo(), moving the keys with the actors.
+	 */
+	private void sortByKeys() {
+		for (int i = 1; i < actors.size(); i++) {
+			InteractiveActor a = actors.get(i);
+			float k = sortKeys[i];
+			int j = i - 1;
+
+			while (j >= 0 && (int) (k - sortKeys[j]) > 0) {
+				actors.set(j + 1, actors.get(j));
+				sortKeys[j + 1] = sortKeys[j];
+				j--;
+			}
+
+			actors.set(j + 1, a);
+			sortKeys[j + 1] = k;
+		}
 	}
 	
 	public void draw(SpriteBatch spriteBatch) {
+		draw(spriteBatch, null);
+	}
+
+	/**
+	 * Draws the actors that overlap the view.
+	 * 
+	 * @param view
+	 *            The visible area for the layer parallax. If null, all the
+	 *            actors are drawn.
+	 */
+	public void draw(SpriteBatch spriteBatch, Rectangle view) {
+		drawn = culled = 0;
+
 		if(!visible)
 			return;
 		
 		for (BaseActor a : actors) {
-			if(a instanceof SpriteActor)
-				((SpriteActor)a).draw(spriteBatch);
+			if(!(a instanceof SpriteActor) || !a.isVisible())
+				continue;
+
+			SpriteActor sa = (SpriteActor) a;
+
+			if (view != null && !view.overlaps(sa.getDrawBounds(tmpRect))) {
+				culled++;
+				continue;
+			}
+
+			sa.draw(spriteBatch);
+			drawn++;
+		}
+	}
+
+	/**
+	 * Renders the prerendered frame buffer if needed. Called before the scene
+	 * batch begins.
+	 */
+	public void prerender(SpriteBatch spriteBatch, SceneCamera camera) {
+		if (cache == null)
+			cache = new LayerCache();
+
+		cache.prepare(spriteBatch, actors, parallax, camera);
+	}
+
+	/**
+	 * Draws the layer from the prerendered frame buffer.
+	 * 
+	 * @return false if the layer must be drawn with draw() in this frame.
+	 */
+	public boolean drawPrerendered(SpriteBatch spriteBatch, Rectangle view) {
+		drawn = culled = 0;
+
+		if (!visible)
+			return true;
+
+		if (cache == null || !cache.draw(spriteBatch, view))
+			return false;
+
+		for (BaseActor a : actors) {
+			if (a instanceof SpriteActor && a.isVisible())
+				drawn++;
+		}
+
+		return true;
+	}
+
+	public void invalidateCache() {
+		if (cache != null)
+			cache.invalidate();
+	}
+
+	public void disposeCache() {
+		if (cache != null) {
+			cache.dispose();
+			cache = null;
 		}
 	}
+
+	public int getDrawn() {
+		return drawn;
+	}
+
+	public int getCulled() {
+		return culled;
+	}
 	
 	public void add(InteractiveActor actor) {
 		actors.add(actor);
+		sortDirty = true;
 	}
 
 	public String getName() {
@@ -56,6 +192,23 @@ public class SceneLayer {
 
 	public void setDynamic(boolean dynamic) {
 		this.dynamic = dynamic;
+		sortDirty = true;
+	}
+
+	/**
+	 * Prerendered layers are drawn once into a frame buffer and then the frame
+	 * buffer is drawn while the actors don't change. For layers with many
+	 * still actors.
+	 */
+	public boolean isPrerendered() {
+		return prerendered;
+	}
+
+	public void setPrerendered(boolean prerendered) {
+		this.prerendered = prerendered;
+
+		if (!prerendered)
+			disposeCache();
 	}
 
 	public List<InteractiveActor> getActors() {
@@ -70,10 +223,13 @@ public class SceneLayer {
 				return (int) (a1.getZIndex() - a2.getZIndex());
 			}
 		});
+
+		sortDirty = true;
 	}
 
 	public void remove(BaseActor actor) {
 		actors.remove(actor);
+		sortDirty = true;
 	}
 
 	public float getParallaxMultiplier() {
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.LeaveAction;
+import com.bladecoder.engine.actions.MoveToSceneAction;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.ActionUtils;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Loads in background the assets of the scenes that the player will probably
+ * visit next.
+ *
+ * The neighbours of every scene are found in the 'LeaveAction' and
+ * 'MoveToSceneAction' actions of the scene and actor verbs. Scenes referenced
+ * in 'leave' verbs and scenes referenced more times are prefetched first.
+ *
+ * When the player enters a prefetched scene, its assets are adopted and the
+ * scene doesn't need to be loaded, only its walk graph is created. The
+ * prefetched scenes not entered are moved to the scene cache when they are
+ * completely loaded, or disposed so the new scene doesn't wait for them.
+ */
+public class ScenePrefetcher {
+	private final int maxScenes;
+
+	/** Neighbours of every scene, the most probable first */
+	private HashMap<String, ArrayList<String>> adjacency;
+
+	private final ArrayList<Scene> prefetched = new ArrayList<Scene>();
+
+	/** Music files loaded for the prefetched scenes */
+	private final ArrayList<String> music = new ArrayList<String>();
+
+	private int adopted;
+
+	/**
+	 * @param maxScenes
+	 *            Max. number of scenes prefetched while the player is in a
+	 *            scene. 0 disables the prefetching.
+	 */
+	public ScenePrefetcher(int maxScenes) {
+		this.maxScenes = maxScenes;
+	}
+
+	/**
+	 * Called every frame when the current scene is loaded. When the asset
+	 * queue is empty, queues the assets of the next neighbour scene.
+	 */
+	public void update(World w) {
+		if (maxScenes <= 0)
+			return;
+
+		EngineAssetManager am = EngineAssetManager.getInstance();
+
+		if (am.getQueuedAssets() > 0)
+			return;
+
+		if (prefetched.size() >= maxScenes)
+			return;
+
+		if (adjacency == null)
+			adjacency = createAdjacency(w.getScenes());
+
+		ArrayList<String> neighbours = adjacency.get(w.getCurrentScene().getId());
+
+		if (neighbours == null)
+			return;
+
+		for (String id : neighbours) {
+			Scene s = w.getScene(id);
+
+			if (s == null || s == w.getCurrentScene() || w.getCachedScene(id) != null || prefetched.contains(s))
+				continue;
+
+			EngineLogger.debug("PREFETCHING SCENE: " + id);
+
+			// the walk graph is created if the player enters the scene
+			s.queueAssets();
+
+			if (s.getMusicDesc() != null && s.getMusicDesc().getFilename() != null) {
+				am.loadMusic(s.getMusicDesc().getFilename());
+				music.add(s.getMusicDesc().getFilename());
+			}
+
+			prefetched.add(s);
+
+			return;
+		}
+	}
+
+	/**
+	 * Called when the player enters the scene.
+	 *
+	 * @return true if the scene was prefetched. Its assets are loaded or
+	 *         queued.
+	 */
+	public boolean adopt(Scene scene) {
+		if (!prefetched.remove(scene))
+			return false;
+
+		adopted++;
+
+		return true;
+	}
+
+	/**
+	 * Called when the player leaves the scene, after the new scene takes its
+	 * asset references. The prefetched scenes completely loaded are moved to
+	 * the cache. The rest are disposed, so their queued assets are removed
+	 * from the queue and the new scene doesn't wait for them.
+	 */
+	public void cancel(SceneCache cache) {
+		for (Scene s : prefetched) {
+			if (isLoaded(s)) {
+				cache.put(s);
+			} else {
+				EngineLogger.debug("CANCELLING PREFETCH: " + s.getId());
+				s.dispose();
+			}
+		}
+
+		prefetched.clear();
+	}
+
+	private static boolean isLoaded(Scene s) {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+
+		for (String n : s.getAssetNames()) {
+			if (!am.isLoaded(n))
+				return false;
+		}
+
+		if (s.getAssetManifest() != null) {
+			for (AssetManifest.Entry e : s.getAssetManifest()) {
+				if (e.isSupported() && !am.isLoaded(e.fileName))
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Moves the prefetched scenes not entered by the player to the cache. Must
+	 * be called when the asset queue is empty, after the new scene is loaded.
+	 */
+	public void release(SceneCache cache) {
+		for (Scene s : prefetched)
+			cache.put(s);
+
+		prefetched.clear();
+
+		// the music engine takes its own reference when the music is played
+		for (String m : music)
+			EngineAssetManager.getInstance().disposeMusic(m);
+
+		music.clear();
+	}
+
+	/**
+	 * Disposes the prefetched scenes. The assets not loaded yet are cancelled,
+	 * it doesn't wait for them.
+	 */
+	public void clear() {
+		// the queued assets are removed from the queue
+		for (Scene s : prefetched)
+			s.dispose();
+
+		for (String m : music)
+			EngineAssetManager.getInstance().disposeMusic(m);
+
+		prefetched.clear();
+		music.clear();
+	}
+
+	public boolean isPrefetched(Scene scene) {
+		return prefetched.contains(scene);
+	}
+
+	public ArrayList<Scene> getPrefetched() {
+		return prefetched;
+	}
+
+	public int getNumPrefetched() {
+		return prefetched.size();
+	}
+
+	/** Number of prefetched scenes entered by the player */
+	public int getAdopted() {
+		return adopted;
+	}
+
+	public ArrayList<String> getNeighbours(String sceneId) {
+		return adjacency == null ? null : adjacency.get(sceneId);
+	}
+
+	/**
+	 * Creates the scene adjacency graph from the actions of the scenes.
+	 */
+	public static HashMap<String, ArrayList<String>> createAdjacency(Map<String, Scene> scenes) {
+		HashMap<String, ArrayList<String>> adjacency = new HashMap<String, ArrayList<String>>();
+
+		for (Scene s : scenes.values()) {
+			final LinkedHashMap<String, Integer> weights = new LinkedHashMap<String, Integer>();
+
+			addNeighbours(s.getVerbManager(), s.getId(), weights);
+
+			for (BaseActor a : s.getActors().values()) {
+				if (a instanceof InteractiveActor)
+					addNeighbours(((InteractiveActor) a).getVerbManager(), s.getId(), weights);
+			}
+
+			ArrayList<String> neighbours = new ArrayList<String>(weights.keySet());
+
+			// stable sort, the first referenced wins in ties
+			Collections.sort(neighbours, new Comparator<String>() {
+				@Override
+				public int compare(String a, String b) {
+					return weights.get(b) - weights.get(a);
+				}
+			});
+
+			adjacency.put(s.getId(), neighbours);
+		}
+
+		return adjacency;
+	}
+
+	private static void addNeighbours(VerbManager vm, String sceneId, HashMap<String, Integer> weights) {
+		for (Verb v : vm.getVerbs().values()) {
+			for (Action a : v.getActions()) {
+				int w;
+
+				if (a instanceof LeaveAction)
+					w = Verb.LEAVE_VERB.equals(v.getId()) ? 2 : 1;
+				else if (a instanceof MoveToSceneAction)
+					w = 1;
+				else
+					continue;
+
+				String target;
+
+				try {
+					target = ActionUtils.getStringValue(a, "scene");
+				} catch (Exception e) {
+					continue;
+				}
+
+				if (target == null || target.isEmpty() || target.equals(sceneId))
+					continue;
+
+				Integer old = weights.get(target);
+				weights.put(target, old == null ? w : old + w);
+			}
+		}
+	}
+}
@@ -51,6 +51,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.AnimationDesc;
+import com.bladecoder.engine.anim.PendingAnimation;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.util.ActionCallbackSerialization;
@@ -123,6 +124,9 @@ public class Sprite3DRenderer implements ActorRenderer {
 
 	private Polygon bbox;
 
+	/** Animation waiting for its model to be loaded */
+	private PendingAnimation pendingAnimation;
+
 	class ModelCacheEntry {
 		int refCounter;
 		ModelInstance modelInstance;
@@ -344,6 +348,8 @@ public class Sprite3DRenderer implements ActorRenderer {
 
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb) {
+		pendingAnimation = null;
+
 		AnimationDesc fa = fanims.get(id);
 
 		if (fa == null) {
@@ -352,6 +358,23 @@ public class Sprite3DRenderer implements ActorRenderer {
 			return;
 		}
 
+		ModelCacheEntry entry = sourceCache.get(fa.source);
+		String filename = EngineAssetManager.MODEL3D_DIR + fa.source + EngineAssetManager.MODEL3D_EXT;
+
+		// Load the model in background and keep playing the current animation
+		// until it is loaded
+		if ((entry == null || entry.modelInstance == null) && EngineAssetManager.getInstance().isAsyncLoading()
+				&& !EngineAssetManager.getInstance().isLoaded(filename)) {
+
+			if (entry == null || entry.refCounter < 1)
+				loadSource(fa.source);
+
+			pendingAnimation = new PendingAnimation(id, repeatType, count, cb, filename);
+			animationCb = null;
+
+			return;
+		}
+
 		if (currentAnimation != null && currentAnimation.disposeWhenPlayed)
 			disposeSource(currentAnimation.source);
 
@@ -359,11 +382,8 @@ public class Sprite3DRenderer implements ActorRenderer {
 		currentSource = sourceCache.get(fa.source);
 		animationCb = cb;
 
-		if (currentSource == null || currentSource.refCounter < 1) {
+		if (currentSource == null || currentSource.refCounter < 1 || currentSource.modelInstance == null) {
 			// If the source is not loaded. Load it.
-			loadSource(fa.source);
-			EngineAssetManager.getInstance().finishLoading();
-
 			retrieveSource(fa.source);
 
 			currentSource = sourceCache.get(fa.source);
@@ -427,6 +447,13 @@ public class Sprite3DRenderer implements ActorRenderer {
 		computeBbox();
 	}
 
+	private void startPendingAnimation() {
+		PendingAnimation p = pendingAnimation;
+		pendingAnimation = null;
+
+		startAnimation(p.id, p.repeatType, p.count, p.cb);
+	}
+
 	@Override
 	public void startAnimation(String id, Tween.Type repeatType, int count, ActionCallback cb, String direction) {
 		startAnimation(id, repeatType, count, null);
@@ -503,6 +530,8 @@ public class Sprite3DRenderer implements ActorRenderer {
 
 	@Override
 	public void update(float delta) {
+		if (pendingAnimation != null && pendingAnimation.isLoaded())
+			startPendingAnimation();
 
 		if (currentSource != null && currentSource.controller.current != null
 				&& currentSource.controller.current.loopCount != 0) {
@@ -678,11 +707,15 @@ public class Sprite3DRenderer implements ActorRenderer {
 
 		if (entry == null || entry.refCounter < 1) {
 			loadSource(source);
-			EngineAssetManager.getInstance().finishLoading();
 			entry = sourceCache.get(source);
 		}
 
 		if (entry.modelInstance == null) {
+			// only wait when the model is not loaded yet
+			if (!EngineAssetManager.getInstance().isLoaded(EngineAssetManager.MODEL3D_DIR + source
+					+ EngineAssetManager.MODEL3D_EXT))
+				EngineAssetManager.getInstance().finishLoading();
+
 			Model model3d = EngineAssetManager.getInstance().getModel3D(source);
 			entry.modelInstance = new ModelInstance(model3d);
 			entry.controller = new AnimationController(entry.modelInstance);
@@ -768,12 +801,15 @@ public class Sprite3DRenderer implements ActorRenderer {
 
 	@Override
 	public void dispose() {
+		// release only the references taken by this renderer
 		for (String key : sourceCache.keySet()) {
-			EngineAssetManager.getInstance().disposeModel3D(key);
+			if (sourceCache.get(key).refCounter > 0)
+				EngineAssetManager.getInstance().disposeModel3D(key);
 		}
 
 		sourceCache.clear();
 		currentSource = null;
+		pendingAnimation = null;
 		environment = null;
 		shadowEnvironment = null;
 
@@ -800,6 +836,11 @@ public class Sprite3DRenderer implements ActorRenderer {
 			json.writeValue("initAnimation", initAnimation);
 		} else {
 
+			if (pendingAnimation != null) {
+				pendingAnimation.finishLoading();
+				startPendingAnimation();
+			}
+
 			String currentAnimationId = null;
 
 			if (currentAnimation != null)
@@ -17,6 +17,7 @@ package com.bladecoder.engine.model;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
@@ -99,6 +100,18 @@ public class SpriteActor extends InteractiveActor {
 		return renderer.getWidth() * scale;
 	}
 
+	/**
+	 * The area where the actor is drawn: the bounding rectangle of the bbox
+	 * merged with the renderer size, for bboxes smaller than the sprite.
+	 */
+	public Rectangle getDrawBounds(Rectangle out) {
+		float w = renderer.getWidth() * scale;
+		float h = renderer.getHeight() * scale;
+
+		return out.set(getBBox().getBoundingRectangle()).merge(getX() - w / 2, getY()).merge(getX() + w / 2,
+				getY() + h);
+	}
+
 	public float getHeight() {
 		return renderer.getHeight() * scale;
 	}
@@ -25,11 +25,12 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.SAXException;
 
+import com.badlogic.gdx.Application.ApplicationType;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.PixmapIO;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
@@ -42,9 +43,12 @@ import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.actions.ActionCallbackQueue;
 import com.bladecoder.engine.anim.Timers;
 import com.bladecoder.engine.assets.AssetConsumer;
+import com.bladecoder.engine.assets.AssetRetriever;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
+import com.bladecoder.engine.polygonalpathfinder.PathSolver;
 import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.CountingSpriteBatch;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.SerializationHelper;
 import com.bladecoder.engine.util.SerializationHelper.Mode;
@@ -123,14 +127,26 @@ public class World implements Serializable, AssetConsumer {
 	/** For FADEIN/FADEOUT */
 	private Transition transition;
 
-	transient private SpriteBatch spriteBatch;
+	transient private CountingSpriteBatch spriteBatch;
 
-	// We not dispose the last loaded scene.
-	// Instead we cache it to improve performance when returning
-	transient private Scene cachedScene;
+	// We not dispose the last loaded scenes.
+	// Instead we cache them to improve performance when returning
+	transient private SceneCache sceneCache;
+
+	/** Loads the assets of the next scenes while the player is in the current scene */
+	transient private ScenePrefetcher scenePrefetcher;
+
+	/** Retrieves the assets of the current scene in several frames */
+	transient private AssetRetriever assetRetriever;
+
+	/** Use the asset manifest baked by the editor to load the scenes */
+	transient private boolean assetManifestEnabled = true;
 	
 	private MusicEngine musicEngine;
 
+	/** Solves the character paths in worker threads when 'pathfinder_async' is set */
+	transient private PathSolver pathSolver;
+
 	public static World getInstance() {
 		return instance;
 	}
@@ -152,11 +168,13 @@ public class World implements Serializable, AssetConsumer {
 		cutMode = false;
 		timeOfGame = 0;
 		currentChapter = null;
-		cachedScene = null;
+		sceneCache = new SceneCache(Config.getProperty(Config.SCENE_CACHE_BUDGET, 0) * 1024L * 1024L);
+		scenePrefetcher = new ScenePrefetcher(Config.getProperty(Config.SCENE_PREFETCH,
+				Gdx.app.getType() == ApplicationType.Desktop ? 2 : 0));
 
 		customProperties = new HashMap<String, String>();
 
-		spriteBatch = new SpriteBatch();
+		spriteBatch = new CountingSpriteBatch();
 
 		transition = new Transition();
 		
@@ -171,15 +189,17 @@ public class World implements Serializable, AssetConsumer {
 	
 	/**
 	 * Returns a scene from the cache. null if the scene is not cached.
-	 * 
-	 * Note that by now, the cache has only one Scene. In the future, the cache will be a Hastable.
 	 */
 	public Scene getCachedScene(String id) {
-		
-		if(cachedScene != null && cachedScene.getId().equals(id))
-			return cachedScene;
-		
-		return null;
+		return sceneCache.get(id);
+	}
+
+	public SceneCache getSceneCache() {
+		return sceneCache;
+	}
+
+	public ScenePrefetcher getScenePrefetcher() {
+		return scenePrefetcher;
 	}
 
 	public void addTimer(float time, ActionCallback cb) {
@@ -205,16 +225,39 @@ public class World implements Serializable, AssetConsumer {
 		return musicEngine;
 	}
 
+	/**
+	 * The solver for the asynchronous path requests. Created on demand.
+	 */
+	public PathSolver getPathSolver() {
+		if (pathSolver == null)
+			pathSolver = new PathSolver(Config.getProperty(Config.PATHFINDER_THREADS, 0));
+
+		return pathSolver;
+	}
+
 	public void draw() {
 		if (assetState == AssetState.LOADED) {
+			spriteBatch.resetCounters();
 			getCurrentScene().draw(spriteBatch);
 		}
 	}
 
+	/**
+	 * The batch used to draw the scene. Its counters have the flushes and
+	 * texture binds of the last scene draw.
+	 */
+	public CountingSpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+
 	public void update(float delta) {
 		if (assetState == AssetState.LOAD_ASSETS || assetState == AssetState.LOAD_ASSETS_AND_INIT_SCENE) {
 			loadAssets();
 
+			// after the new scene takes its references, so the assets shared
+			// with the prefetched scenes are not unloaded
+			scenePrefetcher.cancel(sceneCache);
+
 			if (assetState == AssetState.LOAD_ASSETS)
 				assetState = AssetState.LOADING;
 			else
@@ -226,7 +269,14 @@ public class World implements Serializable, AssetConsumer {
 		if ((assetState == AssetState.LOADING || assetState == AssetState.LOADING_AND_INIT_SCENE)
 				&& !EngineAssetManager.getInstance().isLoading()) {
 
-			retrieveAssets();
+			if (!retrieveAssetsStep())
+				return;
+
+			assetRetriever = null;
+
+			// the queue is empty, the scenes prefetched and not entered are
+			// fully loaded
+			scenePrefetcher.release(sceneCache);
 
 			paused = false;
 
@@ -271,6 +321,16 @@ public class World implements Serializable, AssetConsumer {
 		
 		musicEngine.update(delta);
 
+		if (pathSolver != null)
+			pathSolver.update();
+
+		// assets loaded in background: animation sources, music and
+		// prefetched scenes
+		if (EngineAssetManager.getInstance().getQueuedAssets() > 0)
+			EngineAssetManager.getInstance().update();
+
+		scenePrefetcher.update(this);
+
 		ActionCallbackQueue.run();
 	}
 
@@ -291,6 +351,67 @@ public class World implements Serializable, AssetConsumer {
 
 		getCurrentScene().retrieveAssets();
 
+		printLoadedAssets();
+		
+		musicEngine.retrieveAssets();
+	}
+
+	/**
+	 * Retrieves the assets of the inventory, the current scene actors and the
+	 * music in several calls. Every call spends the time set in the
+	 * 'retrieve_assets_budget' property (ms).
+	 * 
+	 * @return true when all the assets are retrieved or the world is not
+	 *         loading.
+	 */
+	public boolean retrieveAssetsStep() {
+		if (assetState != AssetState.LOADING && assetState != AssetState.LOADING_AND_INIT_SCENE)
+			return true;
+
+		if (assetRetriever != null && assetRetriever.isDone())
+			return true;
+
+		if (assetRetriever == null) {
+			assetRetriever = new AssetRetriever();
+
+			if (getInventory().isDisposed())
+				assetRetriever.add(getInventory());
+
+			currentScene.retrieveBackground();
+
+			for (BaseActor a : currentScene.getActors().values()) {
+				if (a instanceof AssetConsumer)
+					assetRetriever.add((AssetConsumer) a);
+			}
+
+			assetRetriever.add(musicEngine);
+		}
+
+		if (!assetRetriever.retrieve(Config.getProperty(Config.RETRIEVE_ASSETS_BUDGET, 10)))
+			return false;
+
+		// the actors hold their own references now
+		currentScene.releaseManifest();
+
+		printLoadedAssets();
+
+		return true;
+	}
+
+	/**
+	 * The progress of the current scene loading, from 0 to 1.
+	 */
+	public float getLoadingProgress() {
+		if (assetState == AssetState.LOADED)
+			return 1f;
+
+		float retrieved = assetRetriever == null ? 0f : assetRetriever.getProgress();
+
+		// retrieving is faster than loading
+		return EngineAssetManager.getInstance().getProgress() * 0.8f + retrieved * 0.2f;
+	}
+
+	private void printLoadedAssets() {
 		// Print loaded assets for scene
 		if (EngineLogger.debugMode()) {
 			Array<String> assetNames = EngineAssetManager.getInstance().getAssetNames();
@@ -302,9 +423,28 @@ public class World implements Serializable, AssetConsumer {
 			for (String n : assetNames) {
 				EngineLogger.debug("\t" + n);
 			}
+
+			dumpAssetReferences();
 		}
-		
-		musicEngine.retrieveAssets();
+	}
+
+	/**
+	 * Logs the live asset references of the current, cached and prefetched
+	 * scenes.
+	 */
+	public void dumpAssetReferences() {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+
+		am.dumpReferences("Asset references for CURRENT SCENE: " + currentScene.getId(),
+				currentScene.getAssetNames());
+
+		for (Scene s : sceneCache.getScenes())
+			am.dumpReferences("Asset references for CACHED SCENE: " + s.getId(), s.getAssetNames());
+
+		for (Scene s : scenePrefetcher.getPrefetched())
+			am.dumpReferences("Asset references for PREFETCHED SCENE: " + s.getId(), s.getAssetNames());
+
+		am.dumpReferences("All asset references:", null);
 	}
 
 	public Transition getTransition() {
@@ -342,14 +482,21 @@ public class World implements Serializable, AssetConsumer {
 		// Clear all pending callbacks
 		ActionCallbackQueue.clear();
 
-		if (cachedScene == scene) {
+		if (pathSolver != null)
+			pathSolver.clear();
+
+		assetRetriever = null;
+
+		if (currentScene == scene || scenePrefetcher.adopt(scene) || sceneCache.remove(scene)) {
 			assetState = AssetState.LOADING_AND_INIT_SCENE;
-		} else {
-			if (cachedScene != null) {
-				cachedScene.dispose();
-				cachedScene = null;
-			}
 
+			// prefetching only queues the assets
+			if (scene.isNavGraphPending())
+				scene.createNavGraph();
+
+			// don't wait for the other prefetched scenes
+			scenePrefetcher.cancel(sceneCache);
+		} else {
 			assetState = AssetState.LOAD_ASSETS_AND_INIT_SCENE;
 		}
 
@@ -370,10 +517,13 @@ public class World implements Serializable, AssetConsumer {
 			
 			customProperties.put(WorldProperties.PREVIOUS_SCENE.toString(), currentScene.getId());
 
-			if (CACHE_ENABLED)
-				cachedScene = currentScene; // CACHE ENABLED
-			else
-				currentScene.dispose(); // CACHE DISABLED
+			// when reentering the scene, the assets are already loaded
+			if (currentScene != scene) {
+				if (CACHE_ENABLED)
+					sceneCache.put(currentScene); // CACHE ENABLED
+				else
+					currentScene.dispose(); // CACHE DISABLED
+			}
 
 			transition.reset();
 		}
@@ -494,6 +644,11 @@ public class World implements Serializable, AssetConsumer {
 			// Clear all pending callbacks
 			ActionCallbackQueue.clear();
 
+			if (pathSolver != null) {
+				pathSolver.dispose();
+				pathSolver = null;
+			}
+
 			// ONLY dispose currentscene because other scenes are already
 			// disposed
 			if (currentScene != null) {
@@ -502,10 +657,9 @@ public class World implements Serializable, AssetConsumer {
 				currentScene = null;
 			}
 
-			if (cachedScene != null) {
-				cachedScene.dispose();
-				cachedScene = null;
-			}
+			assetRetriever = null;
+			scenePrefetcher.clear();
+			sceneCache.clear();
 
 			getInventory().dispose();
 
@@ -595,6 +749,14 @@ public class World implements Serializable, AssetConsumer {
 				}
 			}
 		}
+
+		// The frame buffers content is lost with the GL context. Only the
+		// current scene has frame buffers, they are disposed when the scene
+		// goes to the scene cache.
+		if (currentScene != null) {
+			for (SceneLayer l : currentScene.getLayers())
+				l.invalidateCache();
+		}
 	}
 
 	public void newGame() throws Exception {
@@ -726,6 +888,8 @@ public class World implements Serializable, AssetConsumer {
 
 			read(json, root);
 
+			loadAssetManifest(chapterName);
+
 			I18N.loadChapter(EngineAssetManager.MODEL_DIR + chapterName);
 		} else {
 			EngineLogger.error("ERROR LOADING CHAPTER: " + chapterName + EngineAssetManager.CHAPTER_EXT
@@ -738,6 +902,29 @@ public class World implements Serializable, AssetConsumer {
 		EngineLogger.debug("MODEL LOADING TIME (ms): " + (System.currentTimeMillis() - initTime));
 	}
 
+	/**
+	 * Sets the asset manifest baked by the editor to the scenes of the chapter.
+	 */
+	private void loadAssetManifest(String chapterName) {
+		FileHandle f = EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.MANIFEST_EXT);
+
+		if (!assetManifestEnabled || !f.exists())
+			return;
+
+		AssetManifest manifest = AssetManifest.load(f);
+
+		for (Scene s : scenes.values())
+			s.setAssetManifest(manifest.get(s.getId()));
+	}
+
+	/**
+	 * The editor disables the manifest because it is only updated when the
+	 * chapter is saved.
+	 */
+	public void setAssetManifestEnabled(boolean enabled) {
+		assetManifestEnabled = enabled;
+	}
+
 	public void loadChapter(String chapter, String scene) throws Exception {
 		this.testScene = scene;
 
@@ -815,6 +1002,10 @@ public class World implements Serializable, AssetConsumer {
 		if (disposed)
 			return;
 
+		// Start the walks still being solved so they are saved
+		if (pathSolver != null)
+			pathSolver.finish();
+
 		Json json = new Json();
 		json.setOutputType(OutputType.javascript);
 
@@ -22,10 +22,6 @@ import com.badlogic.gdx.utils.Array;
  * navigation graphs, e.g. a tiled map with no diagonal movement may contain up to 4 neighbors for each node.
  * @author hneuer */
 public class NavNode<N extends NavNode<?>> {
-	/** The parent of this node, how we reached it in the search */
-	public N parent;
 	/** The list of all adjacent neighbor nodes. */
 	public final Array<N> neighbors = new Array<N>();
-	/** Algorithm specific data. */
-	protected Object algoData;
 }
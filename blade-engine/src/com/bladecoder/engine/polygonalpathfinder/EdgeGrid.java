@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.HashMap;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * Uniform grid that indexes the edges of the walkzone and the obstacles. Line
+ * of sight and point inside queries only check the edges in the cells that the
+ * query touches.
+ *
+ * Points outside the grid are clamped to the border cells, so edges and queries
+ * outside the walkzone bounds are still found.
+ *
+ * Queries doesn't modify the grid, so several queries can run at the same
+ * time.
+ */
+public class EdgeGrid {
+	/** Max. number of cells per axis */
+	private static final int MAX_CELLS = 128;
+
+	/**
+	 * Edges are registered in all the cells under its bounds expanded by this
+	 * margin. It must be greater than the PolygonUtils.isPointInside() tolerance.
+	 */
+	private static final float EDGE_MARGIN = 1f;
+
+	private final float x0;
+	private final float y0;
+	private final float cellSize;
+	private final int cols;
+	private final int rows;
+
+	private final Array<Edge>[] cells;
+	private final HashMap<Polygon, Edge[]> polygons = new HashMap<Polygon, Edge[]>();
+
+	/**
+	 * Creates a grid covering the bounds. The cell size is calculated to have
+	 * approximately one cell per edge.
+	 */
+	@SuppressWarnings("unchecked")
+	public EdgeGrid(Rectangle bounds, int numEdges) {
+		float area = Math.max(bounds.width * bounds.height, 1f);
+		float size = (float) Math.sqrt(area / Math.max(numEdges, 1));
+
+		size = Math.max(size, Math.max(bounds.width, bounds.height) / MAX_CELLS);
+		size = Math.max(size, 1f);
+
+		x0 = bounds.x;
+		y0 = bounds.y;
+		cellSize = size;
+		cols = Math.max(1, Math.min(MAX_CELLS, (int) Math.ceil(bounds.width / size)));
+		rows = Math.max(1, Math.min(MAX_CELLS, (int) Math.ceil(bounds.height / size)));
+
+		cells = new Array[cols * rows];
+
+		for (int i = 0; i < cells.length; i++)
+			cells[i] = new Array<Edge>(false, 4);
+	}
+
+	/**
+	 * Creates a grid for the walkzone and the obstacles.
+	 */
+	public static EdgeGrid create(Polygon walkZone, Iterable<Polygon> obstacles) {
+		int numEdges = walkZone.getVertices().length / 2;
+
+		for (Polygon o : obstacles)
+			numEdges += o.getVertices().length / 2;
+
+		EdgeGrid grid = new EdgeGrid(walkZone.getBoundingRectangle(), numEdges);
+
+		grid.add(walkZone);
+
+		for (Polygon o : obstacles)
+			grid.add(o);
+
+		return grid;
+	}
+
+	public void add(Polygon p) {
+		if (polygons.containsKey(p))
+			remove(p);
+
+		float verts[] = p.getTransformedVertices();
+		Edge[] edges = new Edge[verts.length / 2];
+
+		for (int i = 0; i < verts.length; i += 2) {
+			Edge e = new Edge(p, verts[i], verts[i + 1], verts[(i + 2) % verts.length],
+					verts[(i + 3) % verts.length]);
+			edges[i / 2] = e;
+
+			int c0 = col(Math.min(e.x1, e.x2) - EDGE_MARGIN);
+			int c1 = col(Math.max(e.x1, e.x2) + EDGE_MARGIN);
+			int r0 = row(Math.min(e.y1, e.y2) - EDGE_MARGIN);
+			int r1 = row(Math.max(e.y1, e.y2) + EDGE_MARGIN);
+
+			for (int r = r0; r <= r1; r++)
+				for (int c = c0; c <= c1; c++)
+					cells[r * cols + c].add(e);
+		}
+
+		polygons.put(p, edges);
+	}
+
+	public boolean remove(Polygon p) {
+		Edge[] edges = polygons.remove(p);
+
+		if (edges == null)
+			return false;
+
+		for (Edge e : edges) {
+			int c0 = col(Math.min(e.x1, e.x2) - EDGE_MARGIN);
+			int c1 = col(Math.max(e.x1, e.x2) + EDGE_MARGIN);
+			int r0 = row(Math.min(e.y1, e.y2) - EDGE_MARGIN);
+			int r1 = row(Math.max(e.y1, e.y2) + EDGE_MARGIN);
+
+			for (int r = r0; r <= r1; r++)
+				for (int c = c0; c <= c1; c++)
+					cells[r * cols + c].removeValue(e, true);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the segment crosses any indexed edge. Uses
+	 * PolygonUtils.lineSegmentsCross() for the test.
+	 */
+	public boolean segmentCrosses(float ax, float ay, float bx, float by) {
+		float minX = Math.min(ax, bx);
+		float maxX = Math.max(ax, bx);
+
+		int c0 = col(minX);
+		int c1 = col(maxX);
+
+		for (int c = c0; c <= c1; c++) {
+			// segment part inside the column
+			float xa = c == 0 ? minX : Math.max(minX, x0 + c * cellSize);
+			float xb = c == cols - 1 ? maxX : Math.min(maxX, x0 + (c + 1) * cellSize);
+
+			float ya, yb;
+
+			if (ax == bx) {
+				ya = ay;
+				yb = by;
+			} else {
+				ya = ay + (by - ay) * (xa - ax) / (bx - ax);
+				yb = ay + (by - ay) * (xb - ax) / (bx - ax);
+			}
+
+			int r0 = row(Math.min(ya, yb));
+			int r1 = row(Math.max(ya, yb));
+
+			for (int r = r0; r <= r1; r++) {
+				Array<Edge> cell = cells[r * cols + c];
+
+				for (int i = 0; i < cell.size; i++) {
+					Edge e = cell.get(i);
+
+					if (PolygonUtils.lineSegmentsCross(ax, ay, bx, by, e.x1, e.y1, e.x2, e.y2))
+						return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Same as PolygonUtils.isPointInside() but only checks the edges in the
+	 * cells above the point.
+	 */
+	public boolean isPointInside(Polygon p, float x, float y, boolean toleranceOnOutside) {
+		boolean inside = false;
+
+		int c = col(x);
+
+		for (int r = row(y); r < rows; r++) {
+			Array<Edge> cell = cells[r * cols + c];
+
+			for (int i = 0; i < cell.size; i++) {
+				Edge e = cell.get(i);
+
+				if (e.polygon != p)
+					continue;
+
+				float d1 = Vector2.dst2(e.x1, e.y1, x, y);
+				float d2 = Vector2.dst2(e.x2, e.y2, x, y);
+
+				if (d1 + d2 + 2.0f * Math.sqrt(d1 * d2) - e.len2 < PolygonUtils.TOLERANCE_IS_POINT_INSIDE)
+					return toleranceOnOutside;
+
+				float leftX = e.x1;
+				float leftY = e.y1;
+				float rightX = e.x2;
+				float rightY = e.y2;
+
+				if (e.x1 > e.x2) {
+					leftX = e.x2;
+					leftY = e.y2;
+					rightX = e.x1;
+					rightY = e.y1;
+				}
+
+				if (leftX < x && x <= rightX && (y - leftY) * (rightX - leftX) < (rightY - leftY) * (x - leftX)) {
+					// The edge is in several cells of the column. Only count it
+					// in the cell where it crosses the column.
+					float crossY = leftY + (rightY - leftY) * (x - leftX) / (rightX - leftX);
+
+					if (row(crossY) == r)
+						inside = !inside;
+				}
+			}
+		}
+
+		return inside;
+	}
+
+	private int col(float x) {
+		int c = (int) Math.floor((x - x0) / cellSize);
+
+		return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+	}
+
+	private int row(float y) {
+		int r = (int) Math.floor((y - y0) / cellSize);
+
+		return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+	}
+
+	private static class Edge {
+		final Polygon polygon;
+		final float x1, y1, x2, y2;
+		final float len2;
+
+		Edge(Polygon polygon, float x1, float y1, float x2, float y2) {
+			this.polygon = polygon;
+			this.x1 = x1;
+			this.y1 = y1;
+			this.x2 = x2;
+			this.y2 = y2;
+			this.len2 = Vector2.dst2(x1, y1, x2, y2);
+		}
+	}
+}
@@ -0,0 +1,663 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import com.badlogic.gdx.math.EarClippingTriangulator;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * Navigation mesh for a walkzone with obstacles. The walkzone minus the
+ * obstacles is triangulated by ear clipping, paths are searched with A* over
+ * the triangles and the corridor is straightened with the funnel algorithm.
+ *
+ * The obstacles are cut as holes, so they must be inside the walkzone and
+ * must not overlap between them. Otherwise the mesh is not built and the
+ * visibility graph must be used.
+ */
+public class NavMesh {
+	/** Max. number of cells per axis of the point location grid */
+	private static final int MAX_CELLS = 64;
+
+	/** Unique vertex coordinates: x0, y0, x1, y1... */
+	private float[] vertices = new float[0];
+
+	/** Vertex ids of every triangle in counterclockwise order */
+	private int[] triangles = new int[0];
+
+	/**
+	 * Neighbor triangle across the edge (v[k], v[k + 1]) of every triangle. -1
+	 * if the edge is a border.
+	 */
+	private int[] neighbors = new int[0];
+
+	private float[] centers = new float[0];
+	private int numTriangles;
+
+	/** Point location grid. Triangles under every cell. */
+	private IntArray[] cells = new IntArray[0];
+	private float gridX;
+	private float gridY;
+	private float cellSize;
+	private int cols;
+	private int rows;
+
+	public int getNumTriangles() {
+		return numTriangles;
+	}
+
+	public float[] getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Vertex ids of the triangles. 3 ids per triangle.
+	 */
+	public int[] getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Triangulates the walkzone minus the obstacles.
+	 * 
+	 * @return false if an obstacle is not completely inside the walkzone or
+	 *         overlaps other obstacle. The mesh is empty then.
+	 */
+	public boolean build(Polygon walkZone, List<Polygon> obstacles) {
+		float walkZoneVerts[] = walkZone.getTransformedVertices();
+		FloatArray outer = new FloatArray(walkZoneVerts);
+
+		if (signedArea(outer) < 0)
+			reverse(outer);
+
+		// 1.- Cut the obstacles as holes
+		ArrayList<FloatArray> holes = new ArrayList<FloatArray>();
+		ArrayList<Polygon> holePolygons = new ArrayList<Polygon>();
+
+		for (Polygon o : obstacles) {
+			float verts[] = o.getTransformedVertices();
+
+			for (int i = 0; i < verts.length; i += 2) {
+				if (!PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
+					clear();
+					return false;
+				}
+			}
+
+			if (edgesCross(walkZoneVerts, verts)) {
+				clear();
+				return false;
+			}
+
+			for (Polygon h : holePolygons) {
+				float hVerts[] = h.getTransformedVertices();
+
+				if (edgesCross(hVerts, verts) || PolygonUtils.isPointInside(h, verts[0], verts[1], false)
+						|| PolygonUtils.isPointInside(o, hVerts[0], hVerts[1], false)) {
+					clear();
+					return false;
+				}
+			}
+
+			FloatArray hole = new FloatArray(verts);
+
+			if (signedArea(hole) > 0)
+				reverse(hole);
+
+			holes.add(hole);
+			holePolygons.add(o);
+		}
+
+		// Bridge the holes from right to left
+		Collections.sort(holes, new Comparator<FloatArray>() {
+			@Override
+			public int compare(FloatArray h1, FloatArray h2) {
+				return Float.compare(maxX(h2), maxX(h1));
+			}
+		});
+
+		for (FloatArray hole : holes)
+			outer = bridgeHole(outer, hole);
+
+		// 2.- Triangulate
+		float[] merged = outer.toArray();
+		ShortArray indexes = new EarClippingTriangulator().computeTriangles(merged);
+
+		// 3.- Merge the vertices duplicated by the bridges
+		HashMap<Long, Integer> vertexIds = new HashMap<Long, Integer>();
+		FloatArray uniqueVertices = new FloatArray();
+		int[] ids = new int[merged.length / 2];
+
+		for (int i = 0; i < merged.length; i += 2) {
+			long key = ((long) Float.floatToIntBits(merged[i]) << 32) | (Float.floatToIntBits(merged[i + 1]) & 0xffffffffL);
+			Integer id = vertexIds.get(key);
+
+			if (id == null) {
+				id = uniqueVertices.size / 2;
+				vertexIds.put(key, id);
+				uniqueVertices.add(merged[i]);
+				uniqueVertices.add(merged[i + 1]);
+			}
+
+			ids[i / 2] = id;
+		}
+
+		vertices = uniqueVertices.toArray();
+
+		// 4.- Keep the triangles with area
+		IntArray tris = new IntArray();
+
+		for (int i = 0; i < indexes.size; i += 3) {
+			int a = ids[indexes.get(i)];
+			int b = ids[indexes.get(i + 1)];
+			int c = ids[indexes.get(i + 2)];
+
+			float area = (vertices[b * 2] - vertices[a * 2]) * (vertices[c * 2 + 1] - vertices[a * 2 + 1])
+					- (vertices[c * 2] - vertices[a * 2]) * (vertices[b * 2 + 1] - vertices[a * 2 + 1]);
+
+			if (Math.abs(area) < 0.0001f)
+				continue;
+
+			if (area > 0)
+				tris.addAll(a, b, c);
+			else
+				tris.addAll(a, c, b);
+		}
+
+		triangles = tris.toArray();
+		numTriangles = triangles.length / 3;
+
+		// 5.- Calc centers and neighbors
+		centers = new float[numTriangles * 2];
+		neighbors = new int[numTriangles * 3];
+
+		HashMap<Long, Integer> edges = new HashMap<Long, Integer>();
+
+		for (int t = 0; t < numTriangles; t++) {
+			centers[t * 2] = (vertices[triangles[t * 3] * 2] + vertices[triangles[t * 3 + 1] * 2]
+					+ vertices[triangles[t * 3 + 2] * 2]) / 3;
+			centers[t * 2 + 1] = (vertices[triangles[t * 3] * 2 + 1] + vertices[triangles[t * 3 + 1] * 2 + 1]
+					+ vertices[triangles[t * 3 + 2] * 2 + 1]) / 3;
+
+			for (int k = 0; k < 3; k++) {
+				neighbors[t * 3 + k] = -1;
+
+				int v1 = triangles[t * 3 + k];
+				int v2 = triangles[t * 3 + (k + 1) % 3];
+				long key = ((long) Math.min(v1, v2) << 32) | Math.max(v1, v2);
+
+				Integer other = edges.remove(key);
+
+				if (other == null) {
+					edges.put(key, t * 3 + k);
+				} else {
+					neighbors[t * 3 + k] = other / 3;
+					neighbors[other] = t;
+				}
+			}
+		}
+
+		createGrid(walkZone.getBoundingRectangle());
+
+		return true;
+	}
+
+	private void clear() {
+		vertices = new float[0];
+		triangles = new int[0];
+		neighbors = new int[0];
+		centers = new float[0];
+		numTriangles = 0;
+		cells = new IntArray[0];
+		cols = rows = 0;
+	}
+
+	/**
+	 * Finds the path between the source and the target and adds the points to
+	 * the query path.
+	 *
+	 * @return false if the points are not in the mesh or the path is not found.
+	 */
+	public boolean findPath(PathQuery query, float sx, float sy, float tx, float ty) {
+		int source = locate(sx, sy);
+		int target = locate(tx, ty);
+
+		if (source == -1 || target == -1)
+			return false;
+
+		if (source == target) {
+			query.addPoint(sx, sy);
+			query.addPoint(tx, ty);
+
+			return true;
+		}
+
+		// 1.- A* over the triangles
+		int maxExpandedNodes = query.getMaxExpandedNodes();
+
+		query.check(source);
+		query.check(target);
+
+		query.cost[source] = 0;
+		query.estimated[source] = Vector2.dst(centers[source * 2], centers[source * 2 + 1], tx, ty);
+		query.open(source);
+
+		while (!query.isOpenListEmpty()) {
+			if (maxExpandedNodes > 0 && query.expandedNodes >= maxExpandedNodes)
+				return false;
+
+			int current = query.popOpen();
+			query.closed[current] = true;
+
+			if (current == target)
+				break;
+
+			query.expandedNodes++;
+
+			for (int k = 0; k < 3; k++) {
+				int n = neighbors[current * 3 + k];
+
+				if (n == -1)
+					continue;
+
+				query.check(n);
+
+				if (query.closed[n])
+					continue;
+
+				float cost = query.cost[current]
+						+ Vector2.dst(centers[current * 2], centers[current * 2 + 1], centers[n * 2], centers[n * 2 + 1]);
+
+				if (cost < query.cost[n]) {
+					query.cost[n] = cost;
+					query.estimated[n] = cost + Vector2.dst(centers[n * 2], centers[n * 2 + 1], tx, ty);
+					query.parent[n] = current;
+					query.open(n);
+				}
+			}
+		}
+
+		if (query.parent[target] == -1)
+			return false;
+
+		// 2.- Corridor of triangles from source to target
+		int length = 0;
+
+		for (int t = target; t != -1; t = query.parent[t])
+			length++;
+
+		int[] corridor = query.corridor;
+
+		for (int t = target, i = length - 1; t != -1; t = query.parent[t], i--)
+			corridor[i] = t;
+
+		// 3.- Portals between the corridor triangles
+		float[] portals = query.portals;
+		int numPortals = 0;
+
+		numPortals = setPortal(portals, numPortals, sx, sy, sx, sy);
+
+		for (int i = 0; i < length - 1; i++) {
+			int t = corridor[i];
+			int next = corridor[i + 1];
+
+			for (int k = 0; k < 3; k++) {
+				if (neighbors[t * 3 + k] == next) {
+					// Triangles are counterclockwise, so leaving through the
+					// edge (v[k], v[k+1]), v[k+1] is on the left.
+					int right = triangles[t * 3 + k];
+					int left = triangles[t * 3 + (k + 1) % 3];
+
+					numPortals = setPortal(portals, numPortals, vertices[left * 2], vertices[left * 2 + 1],
+							vertices[right * 2], vertices[right * 2 + 1]);
+					break;
+				}
+			}
+		}
+
+		numPortals = setPortal(portals, numPortals, tx, ty, tx, ty);
+
+		// 4.- Straighten the path
+		funnel(query, portals, numPortals);
+
+		return true;
+	}
+
+	private static int setPortal(float[] portals, int i, float lx, float ly, float rx, float ry) {
+		portals[i * 4] = lx;
+		portals[i * 4 + 1] = ly;
+		portals[i * 4 + 2] = rx;
+		portals[i * 4 + 3] = ry;
+
+		return i + 1;
+	}
+
+	/**
+	 * Simple stupid funnel algorithm. Portals are stored as left x, left y,
+	 * right x, right y.
+	 */
+	private static void funnel(PathQuery query, float[] portals, int numPortals) {
+		float apexX = portals[0], apexY = portals[1];
+		float leftX = portals[0], leftY = portals[1];
+		float rightX = portals[2], rightY = portals[3];
+		int apexIndex = 0, leftIndex = 0, rightIndex = 0;
+
+		query.addPoint(apexX, apexY);
+
+		for (int i = 1; i < numPortals; i++) {
+			float lx = portals[i * 4], ly = portals[i * 4 + 1];
+			float rx = portals[i * 4 + 2], ry = portals[i * 4 + 3];
+
+			// Update right vertex
+			if (cross(apexX, apexY, rightX, rightY, rx, ry) >= 0) {
+				if ((apexX == rightX && apexY == rightY) || cross(apexX, apexY, leftX, leftY, rx, ry) < 0) {
+					// Tighten the funnel
+					rightX = rx;
+					rightY = ry;
+					rightIndex = i;
+				} else {
+					// Right over left, the left vertex is the new apex
+					apexX = leftX;
+					apexY = leftY;
+					apexIndex = leftIndex;
+					query.addPoint(apexX, apexY);
+
+					rightX = leftX = apexX;
+					rightY = leftY = apexY;
+					leftIndex = rightIndex = apexIndex;
+					i = apexIndex;
+					continue;
+				}
+			}
+
+			// Update left vertex
+			if (cross(apexX, apexY, leftX, leftY, lx, ly) <= 0) {
+				if ((apexX == leftX && apexY == leftY) || cross(apexX, apexY, rightX, rightY, lx, ly) > 0) {
+					// Tighten the funnel
+					leftX = lx;
+					leftY = ly;
+					leftIndex = i;
+				} else {
+					// Left over right, the right vertex is the new apex
+					apexX = rightX;
+					apexY = rightY;
+					apexIndex = rightIndex;
+					query.addPoint(apexX, apexY);
+
+					rightX = leftX = apexX;
+					rightY = leftY = apexY;
+					leftIndex = rightIndex = apexIndex;
+					i = apexIndex;
+					continue;
+				}
+			}
+		}
+
+		float endX = portals[(numPortals - 1) * 4];
+		float endY = portals[(numPortals - 1) * 4 + 1];
+
+		if (apexX != endX || apexY != endY)
+			query.addPoint(endX, endY);
+	}
+
+	/**
+	 * Cross product of (b - a) and (c - a). Positive if c is on the left of
+	 * the a->b vector.
+	 */
+	private static float cross(float ax, float ay, float bx, float by, float cx, float cy) {
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	/**
+	 * Returns the triangle that contains the point. If the point is in no
+	 * triangle, returns the nearest triangle in the point cell. -1 if there is
+	 * no triangle near the point.
+	 */
+	public int locate(float x, float y) {
+		if (numTriangles == 0)
+			return -1;
+
+		IntArray cell = cells[row(y) * cols + col(x)];
+		int nearest = -1;
+		float nearestDst = Float.MAX_VALUE;
+
+		for (int i = 0; i < cell.size; i++) {
+			int t = cell.get(i);
+
+			if (contains(t, x, y))
+				return t;
+
+			float dst = Vector2.dst2(centers[t * 2], centers[t * 2 + 1], x, y);
+
+			if (dst < nearestDst) {
+				nearestDst = dst;
+				nearest = t;
+			}
+		}
+
+		return nearest;
+	}
+
+	private boolean contains(int t, float x, float y) {
+		int a = triangles[t * 3] * 2;
+		int b = triangles[t * 3 + 1] * 2;
+		int c = triangles[t * 3 + 2] * 2;
+
+		// Small tolerance for points in the edges
+		return cross(vertices[a], vertices[a + 1], vertices[b], vertices[b + 1], x, y) >= -0.01f
+				&& cross(vertices[b], vertices[b + 1], vertices[c], vertices[c + 1], x, y) >= -0.01f
+				&& cross(vertices[c], vertices[c + 1], vertices[a], vertices[a + 1], x, y) >= -0.01f;
+	}
+
+	private void createGrid(Rectangle bounds) {
+		cellSize = Math.max(1f, Math.max(bounds.width, bounds.height) / Math.min(MAX_CELLS,
+				Math.max(1, (int) Math.sqrt(numTriangles))));
+		gridX = bounds.x;
+		gridY = bounds.y;
+		cols = Math.max(1, Math.min(MAX_CELLS, (int) Math.ceil(bounds.width / cellSize)));
+		rows = Math.max(1, Math.min(MAX_CELLS, (int) Math.ceil(bounds.height / cellSize)));
+
+		cells = new IntArray[cols * rows];
+
+		for (int i = 0; i < cells.length; i++)
+			cells[i] = new IntArray(false, 4);
+
+		for (int t = 0; t < numTriangles; t++) {
+			float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+			float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+
+			for (int k = 0; k < 3; k++) {
+				int v = triangles[t * 3 + k] * 2;
+
+				minX = Math.min(minX, vertices[v]);
+				minY = Math.min(minY, vertices[v + 1]);
+				maxX = Math.max(maxX, vertices[v]);
+				maxY = Math.max(maxY, vertices[v + 1]);
+			}
+
+			for (int r = row(minY - 1); r <= row(maxY + 1); r++)
+				for (int c = col(minX - 1); c <= col(maxX + 1); c++)
+					cells[r * cols + c].add(t);
+		}
+	}
+
+	private int col(float x) {
+		int c = (int) Math.floor((x - gridX) / cellSize);
+
+		return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+	}
+
+	private int row(float y) {
+		int r = (int) Math.floor((y - gridY) / cellSize);
+
+		return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+	}
+
+	/**
+	 * Connects the hole to the outer polygon through the first outer vertex
+	 * visible from the rightmost hole vertex. The outer polygon must be
+	 * counterclockwise and the hole clockwise.
+	 */
+	private static FloatArray bridgeHole(FloatArray outer, FloatArray hole) {
+		// rightmost hole vertex
+		int m = 0;
+
+		for (int i = 2; i < hole.size; i += 2) {
+			if (hole.get(i) > hole.get(m))
+				m = i;
+		}
+
+		float mx = hole.get(m);
+		float my = hole.get(m + 1);
+
+		// Nearest outer edge crossed by the ray from M to the right
+		int p = -1;
+		float ix = Float.MAX_VALUE;
+
+		for (int i = 0; i < outer.size; i += 2) {
+			float ax = outer.get(i), ay = outer.get(i + 1);
+			float bx = outer.get((i + 2) % outer.size), by = outer.get((i + 3) % outer.size);
+
+			if ((ay > my) == (by > my) && ay != my && by != my)
+				continue;
+
+			float x;
+
+			if (ay == by)
+				x = Math.min(ax, bx);
+			else
+				x = ax + (my - ay) * (bx - ax) / (by - ay);
+
+			if (x >= mx && x < ix) {
+				ix = x;
+				// The edge endpoint with max. x is the candidate
+				p = ax > bx ? i : (i + 2) % outer.size;
+			}
+		}
+
+		if (p == -1)
+			return outer;
+
+		// Reflex vertices inside the triangle (M, I, P) can hide P. Choose the
+		// one with the minimum angle to the ray.
+		float px = outer.get(p), py = outer.get(p + 1);
+		float bestAngle = Float.MAX_VALUE;
+
+		for (int i = 0; i < outer.size; i += 2) {
+			if (i == p)
+				continue;
+
+			float vx = outer.get(i), vy = outer.get(i + 1);
+
+			if (vx < mx || !inTriangle(vx, vy, mx, my, ix, my, px, py))
+				continue;
+
+			float angle = Math.abs((vy - my) / (vx - mx + 0.0001f));
+
+			if (angle < bestAngle) {
+				bestAngle = angle;
+				p = i;
+			}
+		}
+
+		// outer[0..p], hole from m to m, p, outer[p+1..]
+		FloatArray merged = new FloatArray(outer.size + hole.size + 4);
+
+		merged.addAll(outer, 0, p + 2);
+
+		for (int i = 0; i <= hole.size; i += 2) {
+			merged.add(hole.get((m + i) % hole.size));
+			merged.add(hole.get((m + i + 1) % hole.size));
+		}
+
+		merged.add(outer.get(p));
+		merged.add(outer.get(p + 1));
+		merged.addAll(outer, p + 2, outer.size - p - 2);
+
+		return merged;
+	}
+
+	private static boolean inTriangle(float x, float y, float ax, float ay, float bx, float by, float cx, float cy) {
+		float d1 = cross(ax, ay, bx, by, x, y);
+		float d2 = cross(bx, by, cx, cy, x, y);
+		float d3 = cross(cx, cy, ax, ay, x, y);
+
+		return (d1 >= 0 && d2 >= 0 && d3 >= 0) || (d1 <= 0 && d2 <= 0 && d3 <= 0);
+	}
+
+	/**
+	 * @return true if any edge of the polygon p1 crosses any edge of p2.
+	 */
+	private static boolean edgesCross(float[] p1, float[] p2) {
+		for (int i = 0; i < p1.length; i += 2) {
+			int i2 = (i + 2) % p1.length;
+
+			for (int j = 0; j < p2.length; j += 2) {
+				int j2 = (j + 2) % p2.length;
+
+				if (PolygonUtils.lineSegmentsCross(p1[i], p1[i + 1], p1[i2], p1[i2 + 1], p2[j], p2[j + 1], p2[j2],
+						p2[j2 + 1]))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static float signedArea(FloatArray p) {
+		float area = 0;
+
+		for (int i = 0; i < p.size; i += 2) {
+			float x1 = p.get(i), y1 = p.get(i + 1);
+			float x2 = p.get((i + 2) % p.size), y2 = p.get((i + 3) % p.size);
+
+			area += x1 * y2 - x2 * y1;
+		}
+
+		return area / 2;
+	}
+
+	private static void reverse(FloatArray p) {
+		for (int i = 0, j = p.size - 2; i < j; i += 2, j -= 2) {
+			float x = p.get(i), y = p.get(i + 1);
+
+			p.set(i, p.get(j));
+			p.set(i + 1, p.get(j + 1));
+			p.set(j, x);
+			p.set(j + 1, y);
+		}
+	}
+
+	private static float maxX(FloatArray p) {
+		float max = -Float.MAX_VALUE;
+
+		for (int i = 0; i < p.size; i += 2)
+			max = Math.max(max, p.get(i));
+
+		return max;
+	}
+}
@@ -26,6 +26,9 @@ import com.bladecoder.engine.pathfinder.NavNode;
 public class NavNodePolygonal extends NavNode<NavNodePolygonal> {
 	public float x;
 	public float y;
+
+	/** Position in the graph node list. Used to index the path query data. */
+	public int index;
 	
 	public float getX() {
 		return x;
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of the paths found in a PolygonalNavGraph. Paths are keyed by the
+ * cells of the source and the target in a grid of 'cellSize' units.
+ *
+ * Only the intermediate points of the path are stored. The graph checks that
+ * the real source and target see the first and last stored points before
+ * using a cached path.
+ *
+ * The cache is cleared every time the walkzone or the obstacles change. It is
+ * disabled when the max. number of entries is 0.
+ */
+public class PathCache {
+	public static final float DEFAULT_CELL_SIZE = 4f;
+
+	private float cellSize = DEFAULT_CELL_SIZE;
+	private int maxEntries;
+
+	/** Incremented when the cache is cleared. Used to discard outdated paths. */
+	private int generation;
+
+	private int hits;
+	private int misses;
+
+	/** Reused to find entries without creating keys */
+	private final Key lookupKey = new Key();
+
+	private final LinkedHashMap<Key, float[]> entries = new LinkedHashMap<Key, float[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	public synchronized boolean isEnabled() {
+		return maxEntries > 0;
+	}
+
+	public synchronized int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Sets the max. number of paths stored. 0 disables the cache.
+	 */
+	public synchronized void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+
+		if (entries.size() > maxEntries)
+			clear();
+	}
+
+	public synchronized float getCellSize() {
+		return cellSize;
+	}
+
+	public synchronized void setCellSize(float cellSize) {
+		this.cellSize = cellSize;
+		clear();
+	}
+
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized int getGeneration() {
+		return generation;
+	}
+
+	public synchronized void resetCounters() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Removes all the paths. Called when the walkzone or the obstacles change.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		generation++;
+	}
+
+	/**
+	 * Returns the intermediate points stored for the source and target cells as
+	 * [x0, y0, x1, y1...] or null if not found. The returned array must not be
+	 * modified.
+	 */
+	public synchronized float[] get(float sx, float sy, float tx, float ty) {
+		if (maxEntries <= 0)
+			return null;
+
+		lookupKey.set(sx, sy, tx, ty, cellSize);
+
+		float[] points = entries.get(lookupKey);
+
+		if (points != null)
+			hits++;
+		else
+			misses++;
+
+		return points;
+	}
+
+	/**
+	 * Stores the intermediate points of a path. The path is discarded if the
+	 * cache was cleared after 'generation' was taken, because it was found with
+	 * an outdated graph.
+	 */
+	public synchronized void put(float sx, float sy, float tx, float ty, float[] points, int generation) {
+		if (maxEntries <= 0 || generation != this.generation)
+			return;
+
+		Key key = new Key();
+		key.set(sx, sy, tx, ty, cellSize);
+
+		entries.put(key, points);
+	}
+
+	/**
+	 * A miss caused by a cached path that is not valid for the real source or
+	 * target.
+	 */
+	synchronized void rejected() {
+		hits--;
+		misses++;
+	}
+
+	private static class Key {
+		int sx, sy, tx, ty;
+
+		void set(float sx, float sy, float tx, float ty, float cellSize) {
+			this.sx = (int) Math.floor(sx / cellSize);
+			this.sy = (int) Math.floor(sy / cellSize);
+			this.tx = (int) Math.floor(tx / cellSize);
+			this.ty = (int) Math.floor(ty / cellSize);
+		}
+
+		@Override
+		public int hashCode() {
+			int h = sx;
+			h = h * 31 + sy;
+			h = h * 31 + tx;
+			h = h * 31 + ty;
+
+			return h;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+
+			Key k = (Key) o;
+
+			return sx == k.sx && sy == k.sy && tx == k.tx && ty == k.ty;
+		}
+	}
+}
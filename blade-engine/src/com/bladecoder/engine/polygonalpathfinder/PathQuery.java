@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.ArrayList;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Scratch state for a PolygonalNavGraph path query: the A* open list, the per
+ * node costs and the result path.
+ *
+ * Every caller owns its query so several queries can run at the same time
+ * without modifying the graph. Arrays and path points are reused between
+ * queries and only grow when the graph grows.
+ *
+ * A query must not be shared between threads and the graph must not be
+ * modified while a query is running.
+ */
+public class PathQuery {
+	/** The result path. Points are reused in the next query. */
+	private final ArrayList<Vector2> path = new ArrayList<Vector2>();
+	private final ArrayList<Vector2> pointPool = new ArrayList<Vector2>();
+
+	final Vector2 source = new Vector2();
+	final Vector2 target = new Vector2();
+
+	/** Id of the current search. Used to know if the node data is outdated. */
+	private int searchId;
+
+	/** Max. number of nodes to expand in a search. 0 for no limit. */
+	private int maxExpandedNodes;
+
+	/** Metrics of the last search */
+	int expandedNodes;
+	int openListPeak;
+
+	/** Per node search data. Indexed by node index */
+	int[] checked = new int[0];
+	float[] cost = new float[0];
+	float[] estimated = new float[0];
+	int[] parent = new int[0];
+	boolean[] closed = new boolean[0];
+
+	/** Nodes visible from the target */
+	int[] targetVisible = new int[0];
+
+	/** Nodes visible from the source */
+	int[] sourceNeighbors = new int[0];
+	int numSourceNeighbors;
+
+	/** Triangles and portals of the path for NavMesh searches */
+	int[] corridor = new int[0];
+	float[] portals = new float[0];
+
+	/** Open list. Binary heap of node indexes ordered by estimated cost. */
+	private int[] heap = new int[0];
+	private int[] heapPos = new int[0];
+	private int heapSize;
+
+	public ArrayList<Vector2> getPath() {
+		return path;
+	}
+
+	public int getMaxExpandedNodes() {
+		return maxExpandedNodes;
+	}
+
+	/**
+	 * Sets the max. number of nodes to expand in a search. When the budget is
+	 * exhausted the search stops and the path is not found.
+	 * 
+	 * @param maxExpandedNodes
+	 *            The budget. 0 for no limit.
+	 */
+	public void setMaxExpandedNodes(int maxExpandedNodes) {
+		this.maxExpandedNodes = maxExpandedNodes;
+	}
+
+	/**
+	 * Number of nodes expanded in the last search.
+	 */
+	public int getExpandedNodes() {
+		return expandedNodes;
+	}
+
+	/**
+	 * Max. size of the open list in the last search.
+	 */
+	public int getOpenListPeak() {
+		return openListPeak;
+	}
+
+	/**
+	 * Returns true if the last search was stopped because the budget was
+	 * exhausted.
+	 */
+	public boolean isBudgetExhausted() {
+		return maxExpandedNodes > 0 && expandedNodes >= maxExpandedNodes && path.isEmpty();
+	}
+
+	/**
+	 * Prepares the query for a search in a graph with the specified number of
+	 * nodes.
+	 */
+	void begin(int numNodes) {
+		if (checked.length < numNodes) {
+			int size = Math.max(numNodes, checked.length * 2);
+
+			checked = new int[size];
+			cost = new float[size];
+			estimated = new float[size];
+			parent = new int[size];
+			closed = new boolean[size];
+			targetVisible = new int[size];
+			sourceNeighbors = new int[size];
+			heap = new int[size];
+			heapPos = new int[size];
+			corridor = new int[size];
+			portals = new float[(size + 2) * 4];
+		}
+
+		searchId++;
+
+		if (searchId < 0) {
+			searchId = 1;
+
+			for (int i = 0; i < checked.length; i++) {
+				checked[i] = 0;
+				targetVisible[i] = 0;
+			}
+		}
+
+		numSourceNeighbors = 0;
+		heapSize = 0;
+		expandedNodes = 0;
+		openListPeak = 0;
+		clearPath();
+	}
+
+	int getSearchId() {
+		return searchId;
+	}
+
+	/**
+	 * Resets the node data if it is from a previous search.
+	 */
+	void check(int node) {
+		if (checked[node] != searchId) {
+			checked[node] = searchId;
+			cost[node] = Float.MAX_VALUE;
+			estimated[node] = Float.MAX_VALUE;
+			parent[node] = -1;
+			closed[node] = false;
+			heapPos[node] = -1;
+		}
+	}
+
+	boolean isOpenListEmpty() {
+		return heapSize == 0;
+	}
+
+	/**
+	 * Adds the node to the open list or updates its position if it is already
+	 * in the list.
+	 */
+	void open(int node) {
+		if (heapPos[node] == -1) {
+			heap[heapSize] = node;
+			heapPos[node] = heapSize;
+			heapSize++;
+
+			if (heapSize > openListPeak)
+				openListPeak = heapSize;
+		}
+
+		up(heapPos[node]);
+	}
+
+	int popOpen() {
+		int node = heap[0];
+		heapPos[node] = -1;
+		heapSize--;
+
+		if (heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapPos[heap[0]] = 0;
+			down(0);
+		}
+
+		return node;
+	}
+
+	private void up(int i) {
+		int node = heap[i];
+		float value = estimated[node];
+
+		while (i > 0) {
+			int p = (i - 1) >> 1;
+
+			if (estimated[heap[p]] <= value)
+				break;
+
+			heap[i] = heap[p];
+			heapPos[heap[i]] = i;
+			i = p;
+		}
+
+		heap[i] = node;
+		heapPos[node] = i;
+	}
+
+	private void down(int i) {
+		int node = heap[i];
+		float value = estimated[node];
+
+		while (true) {
+			int left = (i << 1) + 1;
+
+			if (left >= heapSize)
+				break;
+
+			int right = left + 1;
+			int child = right < heapSize && estimated[heap[right]] < estimated[heap[left]] ? right : left;
+
+			if (estimated[heap[child]] >= value)
+				break;
+
+			heap[i] = heap[child];
+			heapPos[heap[i]] = i;
+			i = child;
+		}
+
+		heap[i] = node;
+		heapPos[node] = i;
+	}
+
+	void clearPath() {
+		for (int i = 0; i < path.size(); i++)
+			pointPool.add(path.get(i));
+
+		path.clear();
+	}
+
+	void addPoint(float x, float y) {
+		Vector2 p = pointPool.isEmpty() ? new Vector2() : pointPool.remove(pointPool.size() - 1);
+
+		path.add(p.set(x, y));
+	}
+}
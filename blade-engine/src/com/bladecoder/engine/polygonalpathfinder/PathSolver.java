@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.math.Vector2;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Solves path requests in a pool of worker threads.
+ *
+ * Requests are queued during the frame and, when update() is called, they are
+ * sent to the workers in batches. Every batch is solved against a snapshot of
+ * the graph, so the graph can be modified in the render thread while the
+ * workers are searching.
+ *
+ * The listeners are always called from update() or finish(), in the render
+ * thread.
+ */
+public class PathSolver {
+	/**
+	 * Called in the render thread with the path found. The path is empty if
+	 * not found.
+	 */
+	public interface PathListener {
+		public void pathSolved(ArrayList<Vector2> path);
+	}
+
+	public static class PathRequest {
+		private final PolygonalNavGraph graph;
+		private final float sx, sy, tx, ty;
+		private final int maxExpandedNodes;
+		private final PathListener listener;
+
+		/** Taken in the render thread when the request is sent to the workers */
+		private PolygonalNavGraph snapshot;
+
+		private ArrayList<Vector2> path;
+		private volatile boolean cancelled;
+
+		private PathRequest(PolygonalNavGraph graph, float sx, float sy, float tx, float ty, int maxExpandedNodes,
+				PathListener listener) {
+			this.graph = graph;
+			this.sx = sx;
+			this.sy = sy;
+			this.tx = tx;
+			this.ty = ty;
+			this.maxExpandedNodes = maxExpandedNodes;
+			this.listener = listener;
+		}
+
+		/**
+		 * The listener will not be called.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	private final int numThreads;
+	private ExecutorService executor;
+
+	/** Requests queued in this frame. Only accessed from the render thread. */
+	private final ArrayList<PathRequest> pending = new ArrayList<PathRequest>();
+
+	/** Batches sent to the workers. Only accessed from the render thread. */
+	private final ArrayList<Batch> running = new ArrayList<Batch>();
+
+	/** Requests solved by the workers and waiting to be delivered */
+	private final ConcurrentLinkedQueue<PathRequest> solved = new ConcurrentLinkedQueue<PathRequest>();
+
+	/** Every worker thread uses its own query */
+	private final ThreadLocal<PathQuery> queries = new ThreadLocal<PathQuery>() {
+		@Override
+		protected PathQuery initialValue() {
+			return new PathQuery();
+		}
+	};
+
+	/**
+	 * @param numThreads
+	 *            Number of worker threads. If <= 0, the number of processors
+	 *            minus 1 is used.
+	 */
+	public PathSolver(int numThreads) {
+		if (numThreads <= 0)
+			numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Queues a path request. The search starts in the next update() call.
+	 */
+	public PathRequest solve(PolygonalNavGraph graph, float sx, float sy, float tx, float ty, int maxExpandedNodes,
+			PathListener listener) {
+		PathRequest r = new PathRequest(graph, sx, sy, tx, ty, maxExpandedNodes, listener);
+
+		pending.add(r);
+
+		return r;
+	}
+
+	/**
+	 * Delivers the paths solved since the last call and sends the queued
+	 * requests to the workers. Must be called once per frame from the render
+	 * thread.
+	 */
+	public void update() {
+		deliver();
+
+		for (Iterator<Batch> it = running.iterator(); it.hasNext();) {
+			if (it.next().future.isDone())
+				it.remove();
+		}
+
+		if (pending.isEmpty())
+			return;
+
+		if (executor == null)
+			executor = createExecutor();
+
+		// Snapshots are taken in the render thread. They are only created
+		// again when the graph changes.
+		for (PathRequest r : pending)
+			snapshotOf(r);
+
+		int batchSize = (pending.size() + numThreads - 1) / numThreads;
+
+		for (int i = 0; i < pending.size(); i += batchSize) {
+			final Batch batch = new Batch(pending.subList(i, Math.min(i + batchSize, pending.size())));
+
+			batch.future = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					solveBatch(batch.requests);
+				}
+			});
+
+			running.add(batch);
+		}
+
+		pending.clear();
+	}
+
+	/**
+	 * Solves all the queued and running requests and calls their listeners
+	 * before returning. Used when the state must be complete, like when saving
+	 * the game.
+	 */
+	public void finish() {
+		for (Batch b : running) {
+			try {
+				b.future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				EngineLogger.error("PathSolver: " + e.getMessage());
+			}
+		}
+
+		running.clear();
+
+		if (!pending.isEmpty()) {
+			ArrayList<PathRequest> batch = new ArrayList<PathRequest>(pending);
+			pending.clear();
+
+			for (PathRequest r : batch)
+				snapshotOf(r);
+
+			solveBatch(batch);
+		}
+
+		deliver();
+	}
+
+	/**
+	 * Cancels all the requests. Called when changing the scene.
+	 */
+	public void clear() {
+		for (PathRequest r : pending)
+			r.cancel();
+
+		pending.clear();
+
+		// running batches discard their results when cancelled
+		for (Batch b : running) {
+			for (PathRequest r : b.requests)
+				r.cancel();
+		}
+
+		for (PathRequest r : solved)
+			r.cancel();
+
+		solved.clear();
+	}
+
+	public void dispose() {
+		clear();
+
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+
+		running.clear();
+	}
+
+	/** Requests waiting for a worker or being solved */
+	public int getNumPending() {
+		int n = pending.size();
+
+		for (Batch b : running)
+			n += b.requests.size();
+
+		return n;
+	}
+
+	private void snapshotOf(PathRequest r) {
+		r.snapshot = r.graph.getSnapshot();
+	}
+
+	private void solveBatch(ArrayList<PathRequest> batch) {
+		PathQuery query = queries.get();
+
+		for (PathRequest r : batch) {
+			if (r.cancelled)
+				continue;
+
+			query.setMaxExpandedNodes(r.maxExpandedNodes);
+			ArrayList<Vector2> p = r.snapshot.findPath(r.sx, r.sy, r.tx, r.ty, query);
+
+			ArrayList<Vector2> path = new ArrayList<Vector2>(p.size());
+
+			for (Vector2 v : p)
+				path.add(new Vector2(v));
+
+			r.path = path;
+
+			if (!r.cancelled)
+				solved.add(r);
+		}
+	}
+
+	private void deliver() {
+		PathRequest r;
+
+		while ((r = solved.poll()) != null) {
+			if (!r.cancelled)
+				r.listener.pathSolved(r.path);
+		}
+	}
+
+	private ExecutorService createExecutor() {
+		return Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+			private int count;
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "PathSolver-" + count++);
+
+				// don't keep the application alive
+				t.setDaemon(true);
+
+				return t;
+			}
+		});
+	}
+
+	private static class Batch {
+		final ArrayList<PathRequest> requests;
+		Future<?> future;
+
+		Batch(List<PathRequest> requests) {
+			this.requests = new ArrayList<PathRequest>(requests);
+		}
+	}
+}
@@ -17,19 +17,21 @@ package com.bladecoder.engine.polygonalpathfinder;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.model.BaseActor;
 import com.bladecoder.engine.model.ObstacleActor;
-import com.bladecoder.engine.pathfinder.AStarPathFinder;
-import com.bladecoder.engine.pathfinder.NavContext;
-import com.bladecoder.engine.pathfinder.NavGraph;
-import com.bladecoder.engine.pathfinder.PathFinder;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.PolygonUtils;
 
@@ -39,8 +41,19 @@ import com.bladecoder.engine.util.PolygonUtils;
  * 
  * @author rgarcia
  */
-public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializable{
-	private static final int MAX_PATHFINDER_SEARCH_DISTANCE = 50;
+public class PolygonalNavGraph implements Serializable{
+
+	/**
+	 * The pathfinder used in the scene. VISIBILITY_GRAPH searches over the
+	 * walkzone and obstacle vertices. NAVMESH searches over the triangulated
+	 * walkzone and scales better with big walkzones. NAVMESH falls back to the
+	 * visibility graph while an obstacle crosses the walkzone border or
+	 * overlaps other obstacle.
+	 */
+	public static enum Type {
+		VISIBILITY_GRAPH, NAVMESH
+	}
+
 	
 	private static final Vector2 tmp = new Vector2();
 	private static final Vector2 tmp2 = new Vector2();
@@ -48,25 +61,77 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 	private Polygon walkZone;
 	private final ArrayList<Polygon> obstacles = new ArrayList<Polygon>();
 
-	final private PathFinder<NavNodePolygonal> pathfinder = new AStarPathFinder<NavNodePolygonal>(this, MAX_PATHFINDER_SEARCH_DISTANCE,
-			new ManhattanDistance());
-	final private NavPathPolygonal resultPath = new NavPathPolygonal();
-	final private NavNodePolygonal startNode = new NavNodePolygonal();
-	final private NavNodePolygonal targetNode = new NavNodePolygonal();
+	/** Query used by findPath() when the caller doesn't provide one */
+	final private PathQuery defaultQuery = new PathQuery();
 	final private ArrayList<NavNodePolygonal> graphNodes = new ArrayList<NavNodePolygonal>();
 
+	/** The graph nodes created for every obstacle */
+	final private HashMap<Polygon, ArrayList<NavNodePolygonal>> obstacleNodes = new HashMap<Polygon, ArrayList<NavNodePolygonal>>();
+
+	/**
+	 * The edges removed when every dynamic obstacle was added, stored as pairs
+	 * of nodes. Only these edges are tested again when the obstacle is removed.
+	 */
+	final private HashMap<Polygon, ArrayList<NavNodePolygonal>> blockedEdges = new HashMap<Polygon, ArrayList<NavNodePolygonal>>();
+
+	/** Graph calculated by the editor. Adjacency stored as pairs of node indexes. */
+	private int[] bakedEdges;
+	private int bakedNodes;
+	private int bakedHash;
+
+	/** World scale when the graph was baked. The tolerances are not scaled. */
+	private float bakedScale;
+
+	/** Spatial index of the walkzone and obstacles edges for line of sight tests */
+	private EdgeGrid edgeGrid;
+
+	private Type type = Type.VISIBILITY_GRAPH;
+
+	/** Created with the initial graph when the type is NAVMESH */
+	private NavMesh navMesh;
+
+	/** Paths found. Cleared when the walkzone or the obstacles change. */
+	private PathCache pathCache = new PathCache();
+
+	/** Copy of the graph for the PathSolver workers. Created on demand. */
+	private PolygonalNavGraph snapshot;
+
+	/** True if this graph is a snapshot. Snapshots must not be modified. */
+	private boolean immutable;
+
+	/** Cache generation when the snapshot was taken */
+	private int snapshotGeneration;
+
+	/**
+	 * Finds the path using the graph default query. The returned list is reused
+	 * in the next call.
+	 */
 	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty) {
-		resultPath.clear();
+		return findPath(sx, sy, tx, ty, defaultQuery);
+	}
 
-		Vector2 source = new Vector2(sx, sy);
-		Vector2 target = new Vector2(tx, ty);
+	/**
+	 * Finds the path using the scratch state of the query. The graph is not
+	 * modified, so several queries can run at the same time.
+	 * 
+	 * @return The query path. Empty if the path is not found.
+	 */
+	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty, PathQuery query) {
+		int numNodes = graphNodes.size();
+		int cacheGeneration = immutable ? snapshotGeneration : pathCache.getGeneration();
+
+		// the source and the target are the last nodes
+		query.begin(navMesh != null ? navMesh.getNumTriangles() : numNodes + 2);
+
+		Vector2 source = query.source.set(sx, sy);
+		Vector2 target = query.target.set(tx, ty);
 
 		// 1. First verify if both the start and target points of the path are
 		// inside the polygon. If the end point is outside the polygon clamp it
 		// back inside.
 		if (!PolygonUtils.isPointInside(walkZone, sx, sy, true)) {
 			EngineLogger.debug("PolygonalPathFinder: Source not in polygon!");
-			return resultPath.getPath();
+			return query.getPath();
 		}
 
 		if (!PolygonUtils.isPointInside(walkZone, tx, ty, true)) {
@@ -78,7 +143,9 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 //			}
 		}
 		
-		for (Polygon o : obstacles) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+
 			if (PolygonUtils.isPointInside(o, target.x, target.y, false)) {
 				PolygonUtils.getClampedPoint(o, target.x, target.y, target);
 				
@@ -98,22 +165,194 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		if (inLineOfSight(source.x, source.y, target.x, target.y)) {
 			EngineLogger.debug("PolygonalPathFinder: Direct path found");
 
-			resultPath.getPath().add(source);
-			resultPath.getPath().add(target);
+			query.addPoint(source.x, source.y);
+			query.addPoint(target.x, target.y);
+
+			return query.getPath();
+		}
+
+		if (findCachedPath(query)) {
+			return query.getPath();
+		}
+
+		if (navMesh != null) {
+			navMesh.findPath(query, source.x, source.y, target.x, target.y);
+			cachePath(query, cacheGeneration);
 
-			return resultPath.getPath();
+			return query.getPath();
 		}
 
 		// 3. Otherwise, add the start and end points of your path as new
-		// temporary nodes to the graph.
+		// temporary nodes to the query.
 		// AND Connect them to every other node that they can see on the graph.
-		addStartEndNodes(source.x, source.y, target.x, target.y);
+		addStartEndNodes(query, numNodes);
 
 		// 5. Run your A* implementation on the graph to get your path. This
 		// path is guaranteed to be as direct as possible!
-		pathfinder.findPath(null, startNode, targetNode, resultPath);
+		search(query, numNodes);
+		cachePath(query, cacheGeneration);
+
+		return query.getPath();
+	}
+
+	/**
+	 * Fills the query path with the cached path for the query source and
+	 * target cells. The cached path is only used if the real source and target
+	 * see its first and last points.
+	 */
+	private boolean findCachedPath(PathQuery query) {
+		Vector2 source = query.source;
+		Vector2 target = query.target;
+
+		float[] points = pathCache.get(source.x, source.y, target.x, target.y);
+
+		if (points == null)
+			return false;
 
-		return resultPath.getPath();
+		int n = points.length;
+
+		if (!inLineOfSight(source.x, source.y, points[0], points[1])
+				|| !inLineOfSight(points[n - 2], points[n - 1], target.x, target.y)) {
+			pathCache.rejected();
+			return false;
+		}
+
+		query.addPoint(source.x, source.y);
+
+		for (int i = 0; i < n; i += 2)
+			query.addPoint(points[i], points[i + 1]);
+
+		query.addPoint(target.x, target.y);
+
+		return true;
+	}
+
+	/**
+	 * Stores the intermediate points of the query path in the cache.
+	 */
+	private void cachePath(PathQuery query, int cacheGeneration) {
+		ArrayList<Vector2> path = query.getPath();
+
+		if (!pathCache.isEnabled() || path.size() < 3)
+			return;
+
+		float[] points = new float[(path.size() - 2) * 2];
+
+		for (int i = 1; i < path.size() - 1; i++) {
+			points[(i - 1) * 2] = path.get(i).x;
+			points[(i - 1) * 2 + 1] = path.get(i).y;
+		}
+
+		pathCache.put(query.source.x, query.source.y, query.target.x, query.target.y, points, cacheGeneration);
+	}
+
+	/**
+	 * A* search over the graph nodes. The source node index is 'numNodes' and
+	 * the target node index is 'numNodes + 1'.
+	 * 
+	 * The edge cost is the distance between nodes and the heuristic is the
+	 * euclidean distance to the target, so the shortest path is found.
+	 */
+	private void search(PathQuery query, int numNodes) {
+		int source = numNodes;
+		int target = numNodes + 1;
+		int searchId = query.getSearchId();
+		int maxExpandedNodes = query.getMaxExpandedNodes();
+
+		query.check(source);
+		query.check(target);
+
+		query.cost[source] = 0;
+		query.estimated[source] = heuristic(query, numNodes, source);
+		query.open(source);
+
+		while (!query.isOpenListEmpty()) {
+			if (maxExpandedNodes > 0 && query.expandedNodes >= maxExpandedNodes) {
+				EngineLogger.debug("PolygonalPathFinder: Search budget exhausted. Nodes expanded: "
+						+ query.expandedNodes);
+				return;
+			}
+
+			int current = query.popOpen();
+			query.closed[current] = true;
+
+			if (current == target)
+				break;
+
+			query.expandedNodes++;
+
+			if (current == source) {
+				for (int i = 0; i < query.numSourceNeighbors; i++)
+					relax(query, numNodes, current, query.sourceNeighbors[i]);
+			} else {
+				Array<NavNodePolygonal> neighbors = graphNodes.get(current).neighbors;
+
+				for (int i = 0; i < neighbors.size; i++)
+					relax(query, numNodes, current, neighbors.get(i).index);
+
+				if (query.targetVisible[current] == searchId)
+					relax(query, numNodes, current, target);
+			}
+		}
+
+		if (query.parent[target] == -1)
+			return;
+
+		// Fill the path from the target to the source
+		int length = 1;
+
+		for (int n = target; n != source; n = query.parent[n])
+			length++;
+
+		for (int i = 0; i < length; i++)
+			query.addPoint(0, 0);
+
+		for (int n = target; n != -1; n = query.parent[n])
+			query.getPath().get(--length).set(getNodeX(query, numNodes, n), getNodeY(query, numNodes, n));
+	}
+
+	/**
+	 * Updates the node cost if the path through the current node is shorter.
+	 */
+	private void relax(PathQuery query, int numNodes, int current, int node) {
+		query.check(node);
+
+		if (query.closed[node])
+			return;
+
+		float cost = query.cost[current] + Vector2.dst(getNodeX(query, numNodes, current),
+				getNodeY(query, numNodes, current), getNodeX(query, numNodes, node), getNodeY(query, numNodes, node));
+
+		if (cost >= query.cost[node])
+			return;
+
+		query.cost[node] = cost;
+		query.estimated[node] = cost + heuristic(query, numNodes, node);
+		query.parent[node] = current;
+		query.open(node);
+	}
+
+	/**
+	 * Euclidean distance from the node to the target. It never overestimates
+	 * the cost, so the found path is the shortest.
+	 */
+	private float heuristic(PathQuery query, int numNodes, int node) {
+		return Vector2.dst(getNodeX(query, numNodes, node), getNodeY(query, numNodes, node), query.target.x,
+				query.target.y);
+	}
+
+	private float getNodeX(PathQuery query, int numNodes, int node) {
+		if (node < numNodes)
+			return graphNodes.get(node).x;
+
+		return node == numNodes ? query.source.x : query.target.x;
+	}
+
+	private float getNodeY(PathQuery query, int numNodes, int node) {
+		if (node < numNodes)
+			return graphNodes.get(node).y;
+
+		return node == numNodes ? query.source.y : query.target.y;
 	}
 	
 	/**
@@ -136,6 +375,136 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 	}
 
 	public void createInitialGraph(Collection<BaseActor> actors) {
+		graphChanged();
+		setStaticObstacles(actors);
+		createGraphNodes();
+		edgeGrid = EdgeGrid.create(walkZone, obstacles);
+
+		if (type == Type.NAVMESH) {
+			buildNavMesh();
+			return;
+		}
+
+		navMesh = null;
+
+		// Use the graph baked by the editor if it was calculated with the
+		// same walkzone, obstacles and world scale
+		if (bakedEdges != null && bakedNodes == graphNodes.size() && bakedHash == calcGraphHash()
+				&& bakedScale == EngineAssetManager.getInstance().getScale()) {
+			for (int i = 0; i < bakedEdges.length; i += 2) {
+				NavNodePolygonal n1 = graphNodes.get(bakedEdges[i]);
+				NavNodePolygonal n2 = graphNodes.get(bakedEdges[i + 1]);
+
+				n1.neighbors.add(n2);
+				n2.neighbors.add(n1);
+			}
+
+			return;
+		}
+
+		EngineLogger.debug("PolygonalPathFinder: Baked graph not found or outdated. Calculating line of sights.");
+
+		calcLineOfSights();
+	}
+
+	/**
+	 * Calculates the graph for the walkzone and the visible obstacles and
+	 * stores it to be saved with the model. When loading the scene, the stored
+	 * graph is used instead of calculating all the line of sights.
+	 * 
+	 * This method is called by the editor before saving the chapter.
+	 */
+	public void bakeGraph(Collection<BaseActor> actors) {
+		// The navmesh is built fast enough when loading the scene
+		if (type == Type.NAVMESH) {
+			bakedEdges = null;
+			return;
+		}
+
+		setStaticObstacles(actors);
+		createGraphNodes();
+		edgeGrid = EdgeGrid.create(walkZone, obstacles);
+		calcLineOfSights();
+
+		HashMap<NavNodePolygonal, Integer> indexes = new HashMap<NavNodePolygonal, Integer>();
+
+		for (int i = 0; i < graphNodes.size(); i++)
+			indexes.put(graphNodes.get(i), i);
+
+		ArrayList<Integer> edges = new ArrayList<Integer>();
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			for (NavNodePolygonal n : graphNodes.get(i).neighbors) {
+				int j = indexes.get(n);
+
+				// every edge is stored only once
+				if (j > i) {
+					edges.add(i);
+					edges.add(j);
+				}
+			}
+		}
+
+		bakedEdges = new int[edges.size()];
+
+		for (int i = 0; i < bakedEdges.length; i++)
+			bakedEdges[i] = edges.get(i);
+
+		bakedNodes = graphNodes.size();
+		bakedHash = calcGraphHash();
+		bakedScale = EngineAssetManager.getInstance().getScale();
+	}
+
+	/**
+	 * Sets the visible obstacles as the graph obstacles. Obstacles are ordered
+	 * by actor id so the graph nodes are always created in the same order.
+	 */
+	private void setStaticObstacles(Collection<BaseActor> actors) {
+		ArrayList<BaseActor> obstacleActors = new ArrayList<BaseActor>();
+
+		for (BaseActor a : actors) {
+			if (a instanceof ObstacleActor && a.isVisible())
+				obstacleActors.add(a);
+		}
+
+		Collections.sort(obstacleActors, new Comparator<BaseActor>() {
+			@Override
+			public int compare(BaseActor a1, BaseActor a2) {
+				return a1.getId().compareTo(a2.getId());
+			}
+		});
+
+		obstacles.clear();
+
+		for (BaseActor a : obstacleActors)
+			obstacles.add(a.getBBox());
+	}
+
+	/**
+	 * Builds the navmesh. If an obstacle crosses the walkzone border or
+	 * overlaps other obstacle, the navmesh can not be built and the visibility
+	 * graph is calculated instead.
+	 */
+	private void buildNavMesh() {
+		if (navMesh == null)
+			navMesh = new NavMesh();
+
+		if (navMesh.build(walkZone, obstacles)) {
+			graphNodes.clear();
+			obstacleNodes.clear();
+			blockedEdges.clear();
+
+			return;
+		}
+
+		EngineLogger.debug("PolygonalPathFinder: Obstacles outside the walkzone or overlapping. Using the visibility graph.");
+
+		navMesh = null;
+		createGraphNodes();
+		calcLineOfSights();
+	}
+
+	private void createGraphNodes() {
 		graphNodes.clear();
 
 		// 1.- Add WalkZone convex nodes
@@ -143,33 +512,48 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 		for (int i = 0; i < verts.length; i += 2) {
 			if (!PolygonUtils.isVertexConcave(walkZone, i)) {
-				graphNodes.add(new NavNodePolygonal(verts[i], verts[i + 1]));
+				NavNodePolygonal n = new NavNodePolygonal(verts[i], verts[i + 1]);
+				n.index = graphNodes.size();
+				graphNodes.add(n);
 			}
 		}
 
 		// 2.- Add obstacles concave nodes
-		obstacles.clear();
-		
-		for(BaseActor a:actors) {
-			if(a instanceof ObstacleActor && a.isVisible())
-				obstacles.add(a.getBBox());
-		}
-		
-		
+		obstacleNodes.clear();
+		blockedEdges.clear();
+
 		for (Polygon o : obstacles) {
-			verts = o.getTransformedVertices();
-
-			for (int i = 0; i < verts.length; i += 2) {
-				if (PolygonUtils.isVertexConcave(o, i)
-						&& PolygonUtils.isPointInside(walkZone, verts[i],
-								verts[i + 1], false)) {
-					graphNodes
-							.add(new NavNodePolygonal(verts[i], verts[i + 1]));
-				}
+			createObstacleNodes(o);
+		}
+	}
+
+	/**
+	 * Creates the nodes for the obstacle concave vertex inside the walkzone and
+	 * adds them to the graph.
+	 */
+	private ArrayList<NavNodePolygonal> createObstacleNodes(Polygon o) {
+		ArrayList<NavNodePolygonal> nodes = new ArrayList<NavNodePolygonal>();
+		float verts[] = o.getTransformedVertices();
+
+		for (int i = 0; i < verts.length; i += 2) {
+			if (PolygonUtils.isVertexConcave(o, i)
+					&& PolygonUtils.isPointInside(walkZone, verts[i],
+							verts[i + 1], false)) {
+				nodes.add(new NavNodePolygonal(verts[i], verts[i + 1]));
 			}
 		}
 
-		// 3.- CALC LINE OF SIGHTs
+		for (NavNodePolygonal n : nodes) {
+			n.index = graphNodes.size();
+			graphNodes.add(n);
+		}
+
+		obstacleNodes.put(o, nodes);
+
+		return nodes;
+	}
+
+	private void calcLineOfSights() {
 		for (int i = 0; i < graphNodes.size() - 1; i++) {
 			NavNodePolygonal n1 = graphNodes.get(i);
 
@@ -184,42 +568,86 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		}
 	}
 
+	/**
+	 * Hash of the walkzone and obstacles vertices. Used to know if the baked
+	 * graph is outdated. The unscaled vertices and positions, as stored in the
+	 * model, are rounded to ints so the hash doesn't depend on the world scale.
+	 */
+	private int calcGraphHash() {
+		int hash = hashPolygon(17, walkZone);
+
+		for (Polygon o : obstacles)
+			hash = hashPolygon(hash, o);
+
+		return hash;
+	}
+
+	private static int hashPolygon(int hash, Polygon p) {
+		float verts[] = p.getVertices();
+
+		hash = 31 * hash + verts.length;
+
+		for (int i = 0; i < verts.length; i++)
+			hash = 31 * hash + Math.round(verts[i]);
+
+		hash = 31 * hash + Math.round(p.getX() / p.getScaleX());
+		hash = 31 * hash + Math.round(p.getY() / p.getScaleY());
+		hash = 31 * hash + Math.round(p.getRotation());
+
+		return hash;
+	}
+
 	private boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y) {
 
-		tmp.set(p1X, p1Y);
-		tmp2.set(p2X, p2Y);
+		// The grid is created with the initial graph
+		if (edgeGrid == null) {
+			tmp.set(p1X, p1Y);
+			tmp2.set(p2X, p2Y);
 
-		if (!PolygonUtils.inLineOfSight(tmp, tmp2, walkZone, false)) {
-			return false;
-		}
-		
-		for (Polygon o : obstacles) {
-			if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
+			if (!PolygonUtils.inLineOfSight(tmp, tmp2, walkZone, false)) {
 				return false;
 			}
+
+			for (Polygon o : obstacles) {
+				if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
+					return false;
+				}
+			}
+
+			return true;
 		}
 
-		return true;
-	}
+		if (edgeGrid.segmentCrosses(p1X, p1Y, p2X, p2Y))
+			return false;
 
-	private void addStartEndNodes(float sx, float sy, float tx, float ty) {
-		startNode.x = sx;
-		startNode.y = sy;
-		targetNode.x = tx;
-		targetNode.y = ty;
+		float midX = (p1X + p2X) / 2;
+		float midY = (p1Y + p2Y) / 2;
 
-		startNode.neighbors.clear();
+		if (!edgeGrid.isPointInside(walkZone, midX, midY, true))
+			return false;
 
-		for (NavNodePolygonal n : graphNodes) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+
+			if (o.getBoundingRectangle().contains(midX, midY) && PolygonUtils.isPointInside(o, midX, midY, false))
+				return false;
+		}
 
-			n.neighbors.removeValue(targetNode, true);
+		return true;
+	}
+
+	private void addStartEndNodes(PathQuery query, int numNodes) {
+		int searchId = query.getSearchId();
 
-			if (inLineOfSight(startNode.x, startNode.y, n.x, n.y)) {
-				startNode.neighbors.add(n);
+		for (int i = 0; i < numNodes; i++) {
+			NavNodePolygonal n = graphNodes.get(i);
+
+			if (inLineOfSight(query.source.x, query.source.y, n.x, n.y)) {
+				query.sourceNeighbors[query.numSourceNeighbors++] = i;
 			}
 
-			if (inLineOfSight(targetNode.x, targetNode.y, n.x, n.y)) {
-				n.neighbors.add(targetNode);
+			if (inLineOfSight(query.target.x, query.target.y, n.x, n.y)) {
+				query.targetVisible[i] = searchId;
 			}
 		}
 
@@ -231,44 +659,250 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 
 	public void setWalkZone(Polygon walkZone) {
 		this.walkZone = walkZone;
+		edgeGrid = null;
+		navMesh = null;
+		graphChanged();
 	}
-	
-	public ArrayList<NavNodePolygonal> getGraphNodes() {
-		return graphNodes;
+
+	public Type getType() {
+		return type;
 	}
 
-	@Override
-	public boolean blocked(NavContext<NavNodePolygonal> context,
-			NavNodePolygonal targetNode) {
-		return false;
+	/**
+	 * Sets the pathfinder type. The graph must be created again with
+	 * createInitialGraph().
+	 */
+	public void setType(Type type) {
+		this.type = type;
+		graphChanged();
 	}
 
-	@Override
-	public float getCost(NavContext<NavNodePolygonal> context,
-			NavNodePolygonal targetNode) {
-		return 1;
+	/**
+	 * Returns a copy of the graph that is not modified when the obstacles
+	 * change. Searches in the copy can run in other threads while this graph
+	 * is modified in the render thread. The copy is created again only after
+	 * the graph changes.
+	 * 
+	 * Must be called from the thread that modifies the graph.
+	 */
+	public PolygonalNavGraph getSnapshot() {
+		if (immutable)
+			return this;
+
+		if (snapshot == null)
+			snapshot = createSnapshot();
+
+		return snapshot;
+	}
+
+	private PolygonalNavGraph createSnapshot() {
+		PolygonalNavGraph s = new PolygonalNavGraph();
+
+		s.immutable = true;
+		s.type = type;
+		s.pathCache = pathCache;
+		s.snapshotGeneration = pathCache.getGeneration();
+
+		s.walkZone = new Polygon(walkZone.getTransformedVertices().clone());
+
+		for (Polygon o : obstacles)
+			s.obstacles.add(new Polygon(o.getTransformedVertices().clone()));
+
+		for (NavNodePolygonal n : graphNodes) {
+			NavNodePolygonal c = new NavNodePolygonal(n.x, n.y);
+			c.index = n.index;
+			s.graphNodes.add(c);
+		}
+
+		for (NavNodePolygonal n : graphNodes) {
+			NavNodePolygonal c = s.graphNodes.get(n.index);
+
+			for (NavNodePolygonal n2 : n.neighbors)
+				c.neighbors.add(s.graphNodes.get(n2.index));
+		}
+
+		s.edgeGrid = EdgeGrid.create(s.walkZone, s.obstacles);
+
+		if (navMesh != null) {
+			s.navMesh = new NavMesh();
+			s.navMesh.build(s.walkZone, s.obstacles);
+		}
+
+		return s;
+	}
+
+	/**
+	 * Called when the walkzone or the obstacles change. Clears the cached paths
+	 * and the snapshot.
+	 */
+	private void graphChanged() {
+		pathCache.clear();
+		snapshot = null;
+	}
+
+	/**
+	 * The cache of the paths found. Disabled by default. Use
+	 * PathCache.setMaxEntries() to enable it.
+	 */
+	public PathCache getPathCache() {
+		return pathCache;
+	}
+
+	/**
+	 * Returns the navmesh or null if the type is not NAVMESH, the graph is not
+	 * created or the obstacles are outside the walkzone or overlapping.
+	 */
+	public NavMesh getNavMesh() {
+		return navMesh;
 	}
 	
+	public ArrayList<NavNodePolygonal> getGraphNodes() {
+		return graphNodes;
+	}
+
+	/**
+	 * Adds the obstacle nodes to the graph and removes the edges blocked by the
+	 * obstacle. Only the edges whose segment overlaps the obstacle bounds are
+	 * checked. The removed edges are stored to restore them when the obstacle
+	 * is removed.
+	 */
 	private void addObstacleToGrapth(Polygon poly) {
-		float verts[] = poly.getTransformedVertices();
-		for (int i = 0; i < verts.length; i += 2) {
-			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i],
-							verts[i + 1], false)) {
-				NavNodePolygonal n1 = new NavNodePolygonal(verts[i], verts[i + 1]);
-				
-				for (int j = 0; j < graphNodes.size(); j++) {
-					NavNodePolygonal n2 = graphNodes.get(j);
+		Rectangle bounds = poly.getBoundingRectangle();
+		ArrayList<NavNodePolygonal> blocked = new ArrayList<NavNodePolygonal>();
+
+		// 1.- Remove the edges blocked by the new obstacle
+		for (NavNodePolygonal n1 : graphNodes) {
+			for (int j = n1.neighbors.size - 1; j >= 0; j--) {
+				NavNodePolygonal n2 = n1.neighbors.get(j);
+
+				if (overlaps(bounds, n1, n2) && !inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+					n1.neighbors.removeIndex(j);
+					n2.neighbors.removeValue(n1, true);
+					blocked.add(n1);
+					blocked.add(n2);
+				}
+			}
+		}
+
+		blockedEdges.put(poly, blocked);
+
+		// 2.- Connect the new obstacle nodes
+		ArrayList<NavNodePolygonal> nodes = createObstacleNodes(poly);
+
+		for (NavNodePolygonal n1 : nodes) {
+			for (NavNodePolygonal n2 : graphNodes) {
+				if (n1 == n2 || n1.neighbors.contains(n2, true))
+					continue;
 
-					if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
-						n1.neighbors.add(n2);
-						n2.neighbors.add(n1);
-					}
+				if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+					n1.neighbors.add(n2);
+					n2.neighbors.add(n1);
+				} else {
+					addBlockedEdge(n1, n2);
 				}
-				
-				graphNodes.add(n1);
 			}
-		}		
+		}
+	}
+
+	/**
+	 * Removes the obstacle nodes from the graph and restores the edges that
+	 * were blocked by the obstacle. For dynamic obstacles, only the edges
+	 * removed when the obstacle was added are tested. The edges still blocked
+	 * by other dynamic obstacles are moved to them.
+	 * 
+	 * The edges blocked by the obstacles of the initial graph were never
+	 * created, so all the pairs of nodes whose segment overlaps the obstacle
+	 * bounds are tested.
+	 */
+	private void removeObstacleFromGraph(Polygon poly) {
+		ArrayList<NavNodePolygonal> nodes = obstacleNodes.remove(poly);
+
+		// 1.- Remove the obstacle nodes
+		if (nodes != null) {
+			for (NavNodePolygonal n : nodes) {
+				graphNodes.remove(n);
+
+				for (NavNodePolygonal n2 : n.neighbors) {
+					n2.neighbors.removeValue(n, true);
+				}
+
+				n.neighbors.clear();
+			}
+
+			for (int i = 0; i < graphNodes.size(); i++)
+				graphNodes.get(i).index = i;
+		}
+
+		// 2.- Restore the edges blocked by the obstacle
+		ArrayList<NavNodePolygonal> blocked = blockedEdges.remove(poly);
+
+		if (blocked != null) {
+			for (int i = 0; i < blocked.size(); i += 2)
+				restoreEdge(blocked.get(i), blocked.get(i + 1));
+
+			return;
+		}
+
+		Rectangle bounds = poly.getBoundingRectangle();
+
+		for (int i = 0; i < graphNodes.size() - 1; i++) {
+			NavNodePolygonal n1 = graphNodes.get(i);
+
+			for (int j = i + 1; j < graphNodes.size(); j++) {
+				NavNodePolygonal n2 = graphNodes.get(j);
+
+				if (overlaps(bounds, n1, n2) && !n1.neighbors.contains(n2, true)
+						&& inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+					n1.neighbors.add(n2);
+					n2.neighbors.add(n1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the edge if its nodes are still in the graph and are in line of
+	 * sight. Otherwise, it is stored in the dynamic obstacles that can block
+	 * it.
+	 */
+	private void restoreEdge(NavNodePolygonal n1, NavNodePolygonal n2) {
+		if (!isInGraph(n1) || !isInGraph(n2) || n1.neighbors.contains(n2, true))
+			return;
+
+		if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
+			n1.neighbors.add(n2);
+			n2.neighbors.add(n1);
+			return;
+		}
+
+		addBlockedEdge(n1, n2);
+	}
+
+	/**
+	 * Stores the edge not in line of sight in the dynamic obstacles that can
+	 * block it, to test it again when they are removed.
+	 */
+	private void addBlockedEdge(NavNodePolygonal n1, NavNodePolygonal n2) {
+		for (Map.Entry<Polygon, ArrayList<NavNodePolygonal>> e : blockedEdges.entrySet()) {
+			if (overlaps(e.getKey().getBoundingRectangle(), n1, n2)) {
+				e.getValue().add(n1);
+				e.getValue().add(n2);
+			}
+		}
+	}
+
+	/** False for the nodes of removed obstacles */
+	private boolean isInGraph(NavNodePolygonal n) {
+		return n.index < graphNodes.size() && graphNodes.get(n.index) == n;
+	}
+
+	/**
+	 * Returns true if the bounds of the segment between the nodes overlaps the
+	 * rectangle.
+	 */
+	private static boolean overlaps(Rectangle r, NavNodePolygonal n1, NavNodePolygonal n2) {
+		return Math.min(n1.x, n2.x) <= r.x + r.width && Math.max(n1.x, n2.x) >= r.x
+				&& Math.min(n1.y, n2.y) <= r.y + r.height && Math.max(n1.y, n2.y) >= r.y;
 	}
 
 	public void addDinamicObstacle(Polygon poly) {
@@ -278,7 +912,16 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		// CHECK TO AVOID ADDING THE ACTOR SEVERAL TIMES
 		if(idx == -1) {
 			obstacles.add(poly);
-			addObstacleToGrapth(poly);
+
+			if (edgeGrid != null)
+				edgeGrid.add(poly);
+
+			if (type == Type.NAVMESH)
+				buildNavMesh();
+			else
+				addObstacleToGrapth(poly);
+
+			graphChanged();
 		}
 	}
 	
@@ -287,28 +930,16 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		
 		if(!exists)
 			return false;
-		
-		float verts[] = poly.getTransformedVertices();
 
-		for (int i = 0; i < verts.length; i += 2) {
-			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i],
-							verts[i + 1], false)) {
-				for (int j = 0; j < graphNodes.size(); j++) {
-					NavNodePolygonal n = graphNodes.get(j);
-
-					if (n.x == verts[i] && n.y == verts[i+1]) {
-						graphNodes.remove(n);
-						j--;
-						
-						for(NavNodePolygonal n2:graphNodes) {
-							n2.neighbors.removeValue(n, true);
-						}
-						
-					}
-				}
-			}
-		}
+		if (edgeGrid != null)
+			edgeGrid.remove(poly);
+
+		if (type == Type.NAVMESH)
+			buildNavMesh();
+		else
+			removeObstacleFromGraph(poly);
+
+		graphChanged();
 		
 		return true;
 	}
@@ -318,6 +949,16 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		Polygon p = new Polygon(walkZone.getVertices());
 		p.setPosition(walkZone.getX()/walkZone.getScaleX(), walkZone.getY()/walkZone.getScaleY());
 		json.writeValue("walkZone", p);
+
+		if (type != Type.VISIBILITY_GRAPH)
+			json.writeValue("type", type);
+
+		if (bakedEdges != null) {
+			json.writeValue("graphHash", bakedHash);
+			json.writeValue("graphScale", bakedScale);
+			json.writeValue("graphNodes", bakedNodes);
+			json.writeValue("graphEdges", bakedEdges);
+		}
 	}
 
 	@Override
@@ -328,5 +969,12 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, Serializab
 		walkZone.setScale(worldScale, worldScale);
 		walkZone.setPosition(walkZone.getX() * worldScale , 
 				walkZone.getY() * worldScale);
+
+		type = json.readValue("type", Type.class, Type.VISIBILITY_GRAPH, jsonData);
+
+		bakedEdges = json.readValue("graphEdges", int[].class, jsonData);
+		bakedNodes = json.readValue("graphNodes", int.class, 0, jsonData);
+		bakedHash = json.readValue("graphHash", int.class, 0, jsonData);
+		bakedScale = json.readValue("graphScale", float.class, 1f, jsonData);
 	}
 }
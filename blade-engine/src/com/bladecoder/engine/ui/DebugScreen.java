@@ -16,6 +16,7 @@
 package com.bladecoder.engine.ui;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
@@ -38,12 +39,16 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.AssetMemoryReport;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.DPIUtils;
 
 public class DebugScreen implements BladeScreen {
+	private static final String MEMORY_REPORT_FILENAME = "memory_report.txt";
+	private static final int MEMORY_MAX_OWNERS = 5;
+
 	private UI ui;
 
 	private Stage stage;
@@ -253,6 +258,77 @@ public class DebugScreen implements BladeScreen {
 		table.add(new Label("Go to Scene: ", ui.getSkin(), "debug"));
 		table.add(scGroup);
 
+		// ------------- SCENE CACHE
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Scene Cache: ", ui.getSkin(), "debug"));
+		table.add(new Label(World.getInstance().getSceneCache().toString(), ui.getSkin(), "debug"));
+
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Scene Prefetch: ", ui.getSkin(), "debug"));
+		table.add(new Label(World.getInstance().getScenePrefetcher().getNumPrefetched() + " scenes, adopted: "
+				+ World.getInstance().getScenePrefetcher().getAdopted(), ui.getSkin(), "debug"));
+
+		// ------------- ASSET MEMORY
+		final AssetMemoryReport memReport = new AssetMemoryReport(World.getInstance());
+		final Label memLabel = new Label(getMemoryInfo(memReport), ui.getSkin(), "debug");
+
+		TextButton memDump = new TextButton("Dump", ui.getSkin());
+		memDump.addListener(new ClickListener() {
+
+			public void clicked(InputEvent event, float x, float y) {
+				FileHandle f = EngineAssetManager.getInstance().getUserFile(MEMORY_REPORT_FILENAME);
+				memReport.save(f);
+				memLabel.setText(getMemoryInfo(memReport) + "\nSaved to " + f.path());
+			}
+		});
+
+		memDump.pad(2, 3, 2, 3);
+
+		HorizontalGroup memGroup = new HorizontalGroup();
+		memGroup.space(10);
+		memGroup.addActor(memLabel);
+		memGroup.addActor(memDump);
+
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Asset Memory: ", ui.getSkin(), "debug")).top();
+		table.add(memGroup);
+
+		// ------------- RENDER STATS
+		final RenderStats stats = ui.getRenderStats();
+		final Label statsLabel = new Label(stats.isEnabled() ? stats.toString() : "", ui.getSkin(), "debug");
+
+		final TextButton statsToggle = new TextButton(stats.isEnabled() ? "Hide" : "Show", ui.getSkin());
+		statsToggle.addListener(new ClickListener() {
+
+			public void clicked(InputEvent event, float x, float y) {
+				stats.setEnabled(!stats.isEnabled());
+				ui.setCurrentScreen(Screens.SCENE_SCREEN);
+			}
+		});
+
+		TextButton statsExport = new TextButton("Export CSV", ui.getSkin());
+		statsExport.addListener(new ClickListener() {
+
+			public void clicked(InputEvent event, float x, float y) {
+				FileHandle f = EngineAssetManager.getInstance().getUserFile(RenderStats.CSV_FILENAME);
+				stats.save(f);
+				statsLabel.setText("Saved to " + f.path());
+			}
+		});
+
+		statsToggle.pad(2, 3, 2, 3);
+		statsExport.pad(2, 3, 2, 3);
+
+		HorizontalGroup statsGroup = new HorizontalGroup();
+		statsGroup.space(10);
+		statsGroup.addActor(statsToggle);
+		statsGroup.addActor(statsExport);
+		statsGroup.addActor(statsLabel);
+
+		table.row().pad(5).align(Align.left);
+		table.add(new Label("Render Stats: ", ui.getSkin(), "debug")).top();
+		table.add(statsGroup);
+
 		// ------------- TESTERBOT
 		final TesterBot bot = ui.getTesterBot();
 		
@@ -383,6 +459,35 @@ public class DebugScreen implements BladeScreen {
 		Gdx.input.setInputProcessor(stage);
 	}
 
+	/**
+	 * Totals of the loaded scenes and the biggest owners of the current scene.
+	 */
+	private String getMemoryInfo(AssetMemoryReport r) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("Total GPU: ").append(r.getGpuSize(null) / 1024).append(" KB, CPU: ")
+				.append(r.getCpuSize(null) / 1024).append(" KB");
+
+		if (r.getScenes().isEmpty())
+			return sb.toString();
+
+		String scene = r.getScenes().get(0);
+
+		sb.append("\n").append(scene).append(" GPU: ").append(r.getGpuSize(scene) / 1024).append(" KB, CPU: ")
+				.append(r.getCpuSize(scene) / 1024).append(" KB");
+
+		int n = 0;
+
+		for (Map.Entry<String, Long> e : r.getOwnerSizes(scene).entrySet()) {
+			if (n++ == MEMORY_MAX_OWNERS)
+				break;
+
+			sb.append("\n  ").append(e.getKey()).append(": ").append(e.getValue() / 1024).append(" KB");
+		}
+
+		return sb.toString();
+	}
+
 	@Override
 	public void hide() {
 		dispose();
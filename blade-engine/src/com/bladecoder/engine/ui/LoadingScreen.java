@@ -23,11 +23,13 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.util.RectangleRenderer;
 
 public class LoadingScreen extends ScreenAdapter implements BladeScreen {
 	private final static float INIT_TIME_SEG = 1f;
+	private final static float BAR_HEIGHT = 4f;
 
 
 	private int pos = 0;
@@ -50,7 +52,7 @@ public class LoadingScreen extends ScreenAdapter implements BladeScreen {
 	@Override
 	public void render(float delta) {
 
-		if (!EngineAssetManager.getInstance().isLoading()) {
+		if (!EngineAssetManager.getInstance().isLoading() && World.getInstance().retrieveAssetsStep()) {
 			ui.setCurrentScreen(Screens.SCENE_SCREEN);
 			return;
 		}
@@ -75,6 +77,14 @@ public class LoadingScreen extends ScreenAdapter implements BladeScreen {
 			final Color color = i == pos ? Color.WHITE : Color.GRAY;
 			RectangleRenderer.draw(ui.getBatch(), x + i * (squareWidth + margin), y, squareWidth, squareHeight, color);
 		}
+
+		// progress bar below the squares
+		final float barWidth = squareWidth * numSquares + margin * (numSquares - 1);
+		final float barY = y - margin * 2 - BAR_HEIGHT;
+		RectangleRenderer.draw(batch, x, barY, barWidth, BAR_HEIGHT, Color.DARK_GRAY);
+		RectangleRenderer.draw(batch, x, barY, barWidth * World.getInstance().getLoadingProgress(), BAR_HEIGHT,
+				Color.WHITE);
+
 		batch.end();
 	}
 
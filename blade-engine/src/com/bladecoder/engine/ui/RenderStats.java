@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.ui;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.Align;
+import com.bladecoder.engine.util.CountingSpriteBatch;
+import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.RectangleRenderer;
+
+/**
+ * Render statistics of the last frames, shown in an overlay in the scene
+ * screen: batch and GL counters, frame time percentiles and the time spent
+ * updating the world, drawing the scene and drawing the UI.
+ *
+ * The stats are only collected when enabled. They can be exported to CSV to
+ * compare builds.
+ */
+public class RenderStats {
+	public static final String CSV_FILENAME = "render_stats.csv";
+
+	/** Number of frames in the rolling window */
+	public static final int WINDOW = 300;
+
+	public static final int UPDATE = 0;
+	public static final int DRAW = 1;
+	public static final int UI = 2;
+
+	private boolean enabled;
+
+	/** Start time of the running sections */
+	private final long[] start = new long[3];
+
+	/** Time of the sections in the current frame */
+	private final long[] nanos = new long[3];
+
+	// rolling window, one entry per frame
+	private final float[] frameMs = new float[WINDOW];
+	private final float[][] sectionMs = new float[3][WINDOW];
+	private final int[] renderCalls = new int[WINDOW];
+	private final int[] maxSprites = new int[WINDOW];
+	private final int[] binds = new int[WINDOW];
+	private final int[] glCalls = new int[WINDOW];
+	private final int[] glDrawCalls = new int[WINDOW];
+	private final int[] glTextureBindings = new int[WINDOW];
+	private final int[] glShaderSwitches = new int[WINDOW];
+
+	private int next;
+	private int count;
+	private long frames;
+
+	private final float[] sorted = new float[WINDOW];
+	private final StringBuilder sb = new StringBuilder();
+	private final GlyphLayout layout = new GlyphLayout();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		if (this.enabled == enabled)
+			return;
+
+		this.enabled = enabled;
+
+		if (enabled) {
+			GLProfiler.enable();
+			GLProfiler.reset();
+			reset();
+		} else {
+			GLProfiler.disable();
+		}
+
+		EngineLogger.debug("RENDER STATS " + (enabled ? "ENABLED" : "DISABLED"));
+	}
+
+	public void reset() {
+		next = 0;
+		count = 0;
+		frames = 0;
+		Arrays.fill(nanos, 0);
+	}
+
+	public void start(int section) {
+		if (enabled)
+			start[section] = System.nanoTime();
+	}
+
+	public void stop(int section) {
+		if (enabled)
+			nanos[section] += System.nanoTime() - start[section];
+	}
+
+	/**
+	 * Stores the stats of the frame in the window and resets the counters.
+	 *
+	 * @param batch
+	 *            The batch used to draw the scene.
+	 */
+	public void endFrame(float delta, CountingSpriteBatch batch) {
+		if (!enabled)
+			return;
+
+		frameMs[next] = delta * 1000f;
+
+		for (int i = 0; i < nanos.length; i++) {
+			sectionMs[i][next] = nanos[i] / 1000000f;
+			nanos[i] = 0;
+		}
+
+		renderCalls[next] = batch.getFlushes();
+		maxSprites[next] = batch.maxSpritesInBatch;
+		binds[next] = batch.getBinds();
+		batch.maxSpritesInBatch = 0;
+
+		glCalls[next] = GLProfiler.calls;
+		glDrawCalls[next] = GLProfiler.drawCalls;
+		glTextureBindings[next] = GLProfiler.textureBindings;
+		glShaderSwitches[next] = GLProfiler.shaderSwitches;
+		GLProfiler.reset();
+
+		next = (next + 1) % WINDOW;
+		count = Math.min(count + 1, WINDOW);
+		frames++;
+	}
+
+	/**
+	 * Frame time percentile in ms over the window.
+	 *
+	 * @param p
+	 *            From 0 to 1.
+	 */
+	public float getFramePercentile(float p) {
+		if (count == 0)
+			return 0;
+
+		System.arraycopy(frameMs, 0, sorted, 0, count);
+		Arrays.sort(sorted, 0, count);
+
+		int i = (int) Math.ceil(p * count) - 1;
+
+		return sorted[Math.max(0, Math.min(count - 1, i))];
+	}
+
+	/** Average time of the section in ms over the window */
+	public float getSectionAverage(int section) {
+		if (count == 0)
+			return 0;
+
+		float sum = 0;
+
+		for (int i = 0; i < count; i++)
+			sum += sectionMs[section][i];
+
+		return sum / count;
+	}
+
+	/** Index of the last stored frame */
+	private int last() {
+		return (next + WINDOW - 1) % WINDOW;
+	}
+
+	@Override
+	public String toString() {
+		sb.setLength(0);
+
+		if (count == 0)
+			return "No frames";
+
+		int l = last();
+
+		sb.append("FPS: ").append(Gdx.graphics.getFramesPerSecond());
+		sb.append("  Frame p50/p95/p99: ").append(format(getFramePercentile(.5f))).append('/')
+				.append(format(getFramePercentile(.95f))).append('/').append(format(getFramePercentile(.99f)))
+				.append(" ms");
+		sb.append("\nUpdate: ").append(format(getSectionAverage(UPDATE))).append("  Draw: ")
+				.append(format(getSectionAverage(DRAW))).append("  UI: ").append(format(getSectionAverage(UI)))
+				.append(" ms (avg)");
+		sb.append("\nBatch: ").append(renderCalls[l]).append(" render calls, ").append(maxSprites[l])
+				.append(" max sprites, ").append(binds[l]).append(" binds");
+		sb.append("\nGL: ").append(glCalls[l]).append(" calls, ").append(glDrawCalls[l]).append(" draw calls, ")
+				.append(glTextureBindings[l]).append(" tex. bindings, ").append(glShaderSwitches[l])
+				.append(" shader switches");
+
+		return sb.toString();
+	}
+
+	private static String format(float ms) {
+		return String.format("%.2f", ms);
+	}
+
+	/**
+	 * Draws the overlay in the bottom left corner. The batch must use screen
+	 * coordinates.
+	 */
+	public void draw(SpriteBatch batch, BitmapFont font, float screenWidth) {
+		if (!enabled)
+			return;
+
+		layout.setText(font, toString(), Color.WHITE, screenWidth, Align.left, true);
+		RectangleRenderer.draw(batch, 0, 0, layout.width + 10, layout.height + 10, Color.BLACK);
+		font.draw(batch, layout, 5, layout.height + 5);
+	}
+
+	/**
+	 * Writes the frames in the window as CSV, the oldest first.
+	 */
+	public void save(FileHandle file) {
+		StringBuilder csv = new StringBuilder();
+
+		csv.append("frame,frame_ms,update_ms,draw_ms,ui_ms,render_calls,max_sprites,binds,")
+				.append("gl_calls,gl_draw_calls,gl_texture_bindings,gl_shader_switches\n");
+
+		for (int n = 0; n < count; n++) {
+			int i = (next + WINDOW - count + n) % WINDOW;
+
+			csv.append(frames - count + n).append(',').append(frameMs[i]).append(',')
+					.append(sectionMs[UPDATE][i]).append(',').append(sectionMs[DRAW][i]).append(',')
+					.append(sectionMs[UI][i]).append(',').append(renderCalls[i]).append(',').append(maxSprites[i])
+					.append(',').append(binds[i]).append(',').append(glCalls[i]).append(',')
+					.append(glDrawCalls[i]).append(',').append(glTextureBindings[i]).append(',')
+					.append(glShaderSwitches[i]).append('\n');
+		}
+
+		file.writeString(csv.toString(), false, "UTF-8");
+
+		EngineLogger.debug("RENDER STATS SAVED: " + file.path());
+	}
+}
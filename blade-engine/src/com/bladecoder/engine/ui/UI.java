@@ -36,6 +36,7 @@ public class UI {
 
 	private final Recorder recorder = new Recorder();
 	private final TesterBot testerBot = new TesterBot();
+	private final RenderStats renderStats = new RenderStats();
 	
 	private boolean fullscreen = false;
 
@@ -81,6 +82,10 @@ public class UI {
 	public TesterBot getTesterBot() {
 		return testerBot;
 	}
+
+	public RenderStats getRenderStats() {
+		return renderStats;
+	}
 	
 	private BladeScreen getCustomScreenInstance(String prop, Class<?> defaultClass) {
 		String clsName = Config.getProperty(prop, null);
@@ -180,6 +185,7 @@ public class UI {
 
 	public void dispose() {
 		screen.hide();
+		renderStats.setEnabled(false);
 		batch.dispose();
 		skin.dispose();
 		
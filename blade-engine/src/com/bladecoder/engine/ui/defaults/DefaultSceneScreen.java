@@ -59,6 +59,7 @@ import com.bladecoder.engine.ui.InventoryUI;
 import com.bladecoder.engine.ui.InventoryUI.InventoryPos;
 import com.bladecoder.engine.ui.PieMenu;
 import com.bladecoder.engine.ui.Recorder;
+import com.bladecoder.engine.ui.RenderStats;
 import com.bladecoder.engine.ui.SceneExtendViewport;
 import com.bladecoder.engine.ui.SceneFitViewport;
 import com.bladecoder.engine.ui.SceneScreen;
@@ -366,7 +367,9 @@ public class DefaultSceneScreen implements SceneScreen {
 		currentActor = null;
 
 		if (!world.isDisposed()) {
+			ui.getRenderStats().start(RenderStats.UPDATE);
 			world.update(delta * speed);
+			ui.getRenderStats().stop(RenderStats.UPDATE);
 
 			// if the game ends returns
 			if (world.isDisposed())
@@ -556,8 +559,12 @@ public class DefaultSceneScreen implements SceneScreen {
 		Gdx.gl.glClearColor(0, 0, 0, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+		RenderStats stats = ui.getRenderStats();
+
 		// WORLD CAMERA
+		stats.start(RenderStats.DRAW);
 		world.draw();
+		stats.stop(RenderStats.DRAW);
 
 		// DRAW DEBUG BBOXES
 		if (EngineLogger.debugMode() && EngineLogger.getDebugLevel() == EngineLogger.DEBUG1) {
@@ -567,7 +574,9 @@ public class DefaultSceneScreen implements SceneScreen {
 		}
 
 		// STAGE
+		stats.start(RenderStats.UI);
 		stage.draw();
+		stats.stop(RenderStats.UI);
 
 		// SCREEN CAMERA
 		batch.setProjectionMatrix(viewport.getCamera().combined);
@@ -592,7 +601,11 @@ public class DefaultSceneScreen implements SceneScreen {
 			drawDebugText(batch);
 		}
 
+		stats.draw(batch, ui.getSkin().getFont("debug"), viewport.getScreenWidth());
+
 		batch.end();
+
+		stats.endFrame(delta, world.getSpriteBatch());
 	}
 
 	private void drawDebugText(SpriteBatch batch) {
@@ -633,6 +646,15 @@ public class DefaultSceneScreen implements SceneScreen {
 
 			sbTmp.append(time);
 
+			// culling stats of the last frame
+			Scene scn = w.getCurrentScene();
+			sbTmp.append(" Actors: ").append(scn.getDrawnActors()).append('/')
+					.append(scn.getDrawnActors() + scn.getCulledActors());
+			sbTmp.append(" Tiles: ").append(scn.getDrawnTiles()).append('/')
+					.append(scn.getDrawnTiles() + scn.getCulledTiles());
+			sbTmp.append(" Flushes: ").append(w.getSpriteBatch().getFlushes());
+			sbTmp.append(" Binds: ").append(w.getSpriteBatch().getBinds());
+
 			// if (w.getCurrentScene().getPlayer() != null) {
 			// sbTmp.append(" Depth Scl: ");
 			// sbTmp.append(w.getCurrentScene().getFakeDepthScale(unprojectTmp.y));
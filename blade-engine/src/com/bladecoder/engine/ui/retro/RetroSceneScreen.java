@@ -52,6 +52,7 @@ import com.bladecoder.engine.model.World.AssetState;
 import com.bladecoder.engine.ui.DialogUI;
 import com.bladecoder.engine.ui.Pointer;
 import com.bladecoder.engine.ui.Recorder;
+import com.bladecoder.engine.ui.RenderStats;
 import com.bladecoder.engine.ui.SceneFitViewport;
 import com.bladecoder.engine.ui.SceneScreen;
 import com.bladecoder.engine.ui.TesterBot;
@@ -319,7 +320,9 @@ public class RetroSceneScreen implements SceneScreen {
 		currentActor = null;
 
 		if (!world.isDisposed()) {
+			ui.getRenderStats().start(RenderStats.UPDATE);
 			world.update(delta * speed);
+			ui.getRenderStats().stop(RenderStats.UPDATE);
 		}
 
 		AssetState assetState = world.getAssetState();
@@ -430,7 +433,11 @@ public class RetroSceneScreen implements SceneScreen {
 
 		worldViewport.apply(true);
 
+		RenderStats stats = ui.getRenderStats();
+
+		stats.start(RenderStats.DRAW);
 		world.draw();
+		stats.stop(RenderStats.DRAW);
 
 		// DRAW DEBUG BBOXES
 		if (EngineLogger.debugMode() && EngineLogger.getDebugLevel() == EngineLogger.DEBUG1) {
@@ -458,13 +465,19 @@ public class RetroSceneScreen implements SceneScreen {
 		if (drawHotspots)
 			drawHotspots(batch);
 
+		stats.draw(batch, ui.getSkin().getFont("debug"), worldViewport.getScreenWidth());
+
 		batch.end();
 
+		stats.start(RenderStats.UI);
 		worldViewportStage.draw();
 
 		// STAGE CAMERA
 		screenViewport.apply(true);
 		stage.draw();
+		stats.stop(RenderStats.UI);
+
+		stats.endFrame(delta, world.getSpriteBatch());
 	}
 
 	private void drawDebugText(SpriteBatch batch) {
@@ -495,6 +508,15 @@ public class RetroSceneScreen implements SceneScreen {
 			sbTmp.append(" UI STATE: ");
 			sbTmp.append(state.toString());
 
+			// culling stats of the last frame
+			Scene scn = w.getCurrentScene();
+			sbTmp.append(" Actors: ").append(scn.getDrawnActors()).append('/')
+					.append(scn.getDrawnActors() + scn.getCulledActors());
+			sbTmp.append(" Tiles: ").append(scn.getDrawnTiles()).append('/')
+					.append(scn.getDrawnTiles() + scn.getCulledTiles());
+			sbTmp.append(" Flushes: ").append(w.getSpriteBatch().getFlushes());
+			sbTmp.append(" Binds: ").append(w.getSpriteBatch().getBinds());
+
 			if (w.getCurrentScene().getPlayer() != null) {
 				sbTmp.append(" Depth Scl: ");
 				sbTmp.append(w.getCurrentScene().getFakeDepthScale(unprojectTmp.y));
@@ -36,6 +36,14 @@ public class Config {
 	public static final String BLADE_ENGINE_VERSION_PROP = "bladeEngineVersion";
 	public static final String UI_MODE = "ui_mode";
 	public static final String FAST_LEAVE = "fast_leave";
+	public static final String PATHFINDER_MAX_EXPANDED_NODES = "pathfinder_max_expanded_nodes";
+	public static final String PATHFINDER_CACHE_SIZE = "pathfinder_cache_size";
+	public static final String PATHFINDER_ASYNC = "pathfinder_async";
+	public static final String PATHFINDER_THREADS = "pathfinder_threads";
+	public static final String SCENE_CACHE_BUDGET = "scene_cache_budget";
+	public static final String SCENE_PREFETCH = "scene_prefetch";
+	public static final String RETRIEVE_ASSETS_BUDGET = "retrieve_assets_budget";
+	public static final String TEXTURE_DECODER_THREADS = "texture_decoder_threads";
 
 	public static final String PROPERTIES_FILENAME = "BladeEngine.properties";
 
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * SpriteBatch that counts the flushes and the texture switches since the last
+ * resetCounters() call. Unlike renderCalls, the counters are not reset in
+ * begin(), so they cover several begin/end blocks.
+ */
+public class CountingSpriteBatch extends SpriteBatch {
+	private int flushes;
+	private int binds;
+
+	@Override
+	public void flush() {
+		int calls = renderCalls;
+
+		super.flush();
+
+		// flush() does nothing if there is nothing to draw
+		if (renderCalls != calls)
+			flushes++;
+	}
+
+	@Override
+	protected void switchTexture(Texture texture) {
+		super.switchTexture(texture);
+		binds++;
+	}
+
+	public void resetCounters() {
+		flushes = 0;
+		binds = 0;
+	}
+
+	/** Draw calls sent to the GPU */
+	public int getFlushes() {
+		return flushes;
+	}
+
+	/** Texture changes. Every change forces a flush */
+	public int getBinds() {
+		return binds;
+	}
+}
@@ -15,7 +15,6 @@
  ******************************************************************************/
 package com.bladecoder.engine.util;
 
-import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Vector2;
 
@@ -103,24 +102,40 @@ public class PolygonUtils {
 	public static int getClampedPoint(Polygon poly, float x, float y,
 			Vector2 dest) {
 		float verts[] = poly.getTransformedVertices();
-		float dTmp;
-
-		Intersector.nearestSegmentPoint(verts[0], verts[1], verts[2], verts[3],
-				x, y, dest);
-
+		float d = Float.MAX_VALUE;
 		int nearest = 0;
-		float d = Vector2.dst(x, y, dest.x, dest.y);
 
-		for (int i = 2; i < verts.length; i += 2) {
-			Intersector.nearestSegmentPoint(verts[i], verts[i + 1],
-					verts[(i + 2) % verts.length],
-					verts[(i + 3) % verts.length], x, y, tmp);
-			dTmp = Vector2.dst(x, y, tmp.x, tmp.y);
+		// Doesn't use the static tmp vectors, so it can be called from
+		// several threads
+		for (int i = 0; i < verts.length; i += 2) {
+			float ax = verts[i];
+			float ay = verts[i + 1];
+			float bx = verts[(i + 2) % verts.length];
+			float by = verts[(i + 3) % verts.length];
+
+			// nearest segment point
+			float px = ax;
+			float py = ay;
+			float length2 = Vector2.dst2(ax, ay, bx, by);
+
+			if (length2 != 0) {
+				float t = ((x - ax) * (bx - ax) + (y - ay) * (by - ay)) / length2;
+
+				if (t >= 1) {
+					px = bx;
+					py = by;
+				} else if (t > 0) {
+					px = ax + (bx - ax) * t;
+					py = ay + (by - ay) * t;
+				}
+			}
+
+			float dTmp = Vector2.dst2(x, y, px, py);
 
 			if (dTmp < d) {
 				d = dTmp;
 				nearest = i;
-				dest.set(tmp);
+				dest.set(px, py);
 			}
 		}
 
@@ -161,7 +176,7 @@ public class PolygonUtils {
 		return cross < 0;
 	}
 
-	private static float TOLERANCE_IS_POINT_INSIDE = 3f;
+	public static final float TOLERANCE_IS_POINT_INSIDE = 3f;
 
 	public static boolean isPointInside(Polygon polygon, float x, float y,
 			boolean toleranceOnOutside) {